@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.benchmarks;
+
+import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.Map;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks with the GC profiler and fails if any benchmark allocates more bytes per
+ * file entry than its budget. Matching an entry must not allocate per configured glob, so the
+ * budgets leave room for copying entries into new layers but not for per-rule garbage.
+ */
+public class AllocationBudgets {
+
+  /** Allocation budgets in bytes per file entry, keyed by benchmark method. */
+  private static final Map<String, Double> BUDGETS =
+      ImmutableMap.of(
+          LayerFilterBenchmark.class.getName() + ".filter", 192.0,
+          OwnershipBenchmark.class.getName() + ".applyRules", 192.0);
+
+  /**
+   * Entry point.
+   *
+   * @param args ignored
+   * @throws RunnerException if running the benchmarks fails
+   */
+  public static void main(String[] args) throws RunnerException {
+    OptionsBuilder optionsBuilder = new OptionsBuilder();
+    BUDGETS.keySet().forEach(benchmark -> optionsBuilder.include(benchmark.replace(".", "\\.")));
+    // Budgets are per entry, so one mid-sized plan with typical rule and layer counts suffices.
+    // Allocation per operation is stable after warm-up, so short runs keep this fast enough for CI.
+    Options options =
+        optionsBuilder
+            .param("entryCount", "10000")
+            .param("layerCount", "4")
+            .param("ruleCount", "4")
+            .forks(1)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.seconds(1))
+            .addProfiler(GCProfiler.class)
+            .build();
+
+    Collection<RunResult> results = new Runner(options).run();
+
+    boolean overBudget = false;
+    for (RunResult result : results) {
+      String benchmark = result.getParams().getBenchmark();
+      int entryCount = Integer.parseInt(result.getParams().getParam("entryCount"));
+      double bytesPerEntry = getAllocatedBytesPerOperation(result) / entryCount;
+      double budget = Verify.verifyNotNull(BUDGETS.get(benchmark));
+
+      System.out.printf(
+          "%s: %.1f bytes/entry (budget: %.1f)%n", benchmark, bytesPerEntry, budget);
+      if (bytesPerEntry > budget) {
+        System.err.println(benchmark + " exceeds its allocation budget");
+        overBudget = true;
+      }
+    }
+    if (overBudget) {
+      System.exit(1);
+    }
+  }
+
+  private static double getAllocatedBytesPerOperation(RunResult result) {
+    // The GC profiler reports "gc.alloc.rate.norm" (bytes allocated per operation).
+    for (Map.Entry<String, Result> secondary :
+        result.getAggregatedResult().getSecondaryResults().entrySet()) {
+      if (secondary.getKey().endsWith("gc.alloc.rate.norm")) {
+        return secondary.getValue().getScore();
+      }
+    }
+    throw new IllegalStateException(
+        "no allocation rate reported for " + result.getParams().getBenchmark());
+  }
+}
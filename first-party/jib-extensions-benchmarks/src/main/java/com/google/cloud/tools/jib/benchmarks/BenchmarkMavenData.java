@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.benchmarks;
+
+import com.google.cloud.tools.jib.maven.extension.MavenData;
+import java.util.Collections;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+/** {@link MavenData} of a single-module Maven build without a container or repository session. */
+class BenchmarkMavenData implements MavenData {
+
+  private final MavenProject project;
+  private final MavenSession session;
+
+  @SuppressWarnings("NullAway") // no Plexus container or repository session needed
+  BenchmarkMavenData(MavenProject project) {
+    this.project = project;
+    session =
+        new MavenSession(
+            null, null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    session.setProjects(Collections.singletonList(project));
+  }
+
+  @Override
+  public MavenProject getMavenProject() {
+    return project;
+  }
+
+  @Override
+  public MavenSession getMavenSession() {
+    return session;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.benchmarks;
+
+import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Synthetic container build plans shaped like those of typical Java applications. */
+class BuildPlans {
+
+  /** Logger that discards everything. */
+  static final ExtensionLogger NO_OP_LOGGER = (logLevel, message) -> {};
+
+  private static final Path SOURCE_ROOT = Paths.get("/project");
+
+  /**
+   * Creates a build plan with the usual Jib layers ("dependencies", "snapshot dependencies",
+   * "resources", "classes") followed by "extra files" layers, holding {@code entryCount} file
+   * entries spread evenly across {@code layerCount} layers. The "dependencies" layer also holds a
+   * {@code spring-boot-devtools} JAR.
+   *
+   * @param entryCount total number of file entries
+   * @param layerCount number of layers; at least 4
+   * @return the build plan
+   */
+  static ContainerBuildPlan create(int entryCount, int layerCount) {
+    if (layerCount < 4) {
+      throw new IllegalArgumentException("layerCount must be at least 4: " + layerCount);
+    }
+
+    List<FileEntriesLayer.Builder> layerBuilders = new ArrayList<>();
+    layerBuilders.add(FileEntriesLayer.builder().setName("dependencies"));
+    layerBuilders.add(FileEntriesLayer.builder().setName("snapshot dependencies"));
+    layerBuilders.add(FileEntriesLayer.builder().setName("resources"));
+    layerBuilders.add(FileEntriesLayer.builder().setName("classes"));
+    for (int i = 4; i < layerCount; i++) {
+      layerBuilders.add(FileEntriesLayer.builder().setName("extra files " + i));
+    }
+
+    addEntry(layerBuilders.get(0), "/app/libs/spring-boot-devtools-2.3.1.RELEASE.jar");
+    for (int i = 0; i < entryCount; i++) {
+      int layerIndex = i % layerCount;
+      addEntry(layerBuilders.get(layerIndex), getPathInContainer(i, layerIndex));
+    }
+
+    ContainerBuildPlan.Builder planBuilder = ContainerBuildPlan.builder();
+    layerBuilders.forEach(layerBuilder -> planBuilder.addLayer(layerBuilder.build()));
+    return planBuilder.build();
+  }
+
+  private static String getPathInContainer(int entryIndex, int layerIndex) {
+    switch (layerIndex) {
+      case 0:
+        return "/app/libs/library-" + entryIndex + "-1.0.jar";
+      case 1:
+        return "/app/libs/module-" + entryIndex + "-1.0-SNAPSHOT.jar";
+      case 2:
+        return entryIndex % 2 == 0
+            ? "/app/resources/config/settings-" + entryIndex + ".properties"
+            : "/app/resources/static/images/image-" + entryIndex + ".png";
+      case 3:
+        return "/app/classes/com/example/pkg"
+            + (entryIndex % 50)
+            + "/Class"
+            + entryIndex
+            + ".class";
+      default:
+        return "/opt/extra-" + layerIndex + "/dir" + (entryIndex % 20) + "/file-" + entryIndex;
+    }
+  }
+
+  private static void addEntry(FileEntriesLayer.Builder layerBuilder, String pathInContainer) {
+    layerBuilder.addEntry(
+        SOURCE_ROOT.resolve(pathInContainer.substring(1)), AbsoluteUnixPath.get(pathInContainer));
+  }
+
+  private BuildPlans() {}
+}
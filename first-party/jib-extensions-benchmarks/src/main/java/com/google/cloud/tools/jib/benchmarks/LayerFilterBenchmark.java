@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.benchmarks;
+
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.maven.extension.layerfilter.Configuration;
+import com.google.cloud.tools.jib.maven.extension.layerfilter.JibLayerFilterExtension;
+import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the Maven Jib Layer Filter Extension on synthetic build plans. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LayerFilterBenchmark {
+
+  private static class Filter extends Configuration.Filter {
+
+    private final String glob;
+    private final String toLayer;
+
+    private Filter(String glob, String toLayer) {
+      this.glob = glob;
+      this.toLayer = toLayer;
+    }
+
+    @Override
+    public String getGlob() {
+      return glob;
+    }
+
+    @Override
+    public String getToLayer() {
+      return toLayer;
+    }
+  }
+
+  private static class FilterConfiguration extends Configuration {
+
+    private final List<Configuration.Filter> filters;
+
+    private FilterConfiguration(List<Configuration.Filter> filters) {
+      this.filters = Collections.unmodifiableList(filters);
+    }
+
+    @Override
+    public List<Configuration.Filter> getFilters() {
+      return filters;
+    }
+  }
+
+  private static List<Configuration.Filter> createFilters(int count) {
+    List<Configuration.Filter> filters =
+        new ArrayList<>(
+            Arrays.asList(
+                new Filter("/app/libs/*-SNAPSHOT.jar", "snapshots"),
+                new Filter("/app/resources/static/**", "static resources"),
+                new Filter("/app/classes/**/pkg1*/*.class", "hot classes"),
+                new Filter("**/*.properties", "")));
+    for (int i = filters.size(); i < count; i++) {
+      filters.add(new Filter("/opt/extra-" + i + "/dir1*/**", "extra " + i));
+    }
+    return filters.subList(0, count);
+  }
+
+  @Param({"1000", "10000", "200000"})
+  public int entryCount;
+
+  @Param({"4", "16"})
+  public int layerCount;
+
+  @Param({"1", "4", "16"})
+  public int ruleCount;
+
+  private ContainerBuildPlan buildPlan;
+  private Optional<Configuration> config;
+  private JibLayerFilterExtension extension;
+
+  /** Prepares the build plan and the extension configuration. */
+  @Setup
+  public void setUp() {
+    buildPlan = BuildPlans.create(entryCount, layerCount);
+    config = Optional.of(new FilterConfiguration(createFilters(ruleCount)));
+    extension = new JibLayerFilterExtension();
+  }
+
+  /**
+   * Runs the extension once over the whole build plan.
+   *
+   * @return the filtered build plan
+   * @throws JibPluginExtensionException if the extension fails
+   */
+  @Benchmark
+  @SuppressWarnings("NullAway") // no Maven data needed
+  public ContainerBuildPlan filter() throws JibPluginExtensionException {
+    return extension.extendContainerBuildPlan(
+        buildPlan, Collections.emptyMap(), config, null, BuildPlans.NO_OP_LOGGER);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.benchmarks;
+
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.maven.extension.ownership.Configuration;
+import com.google.cloud.tools.jib.maven.extension.ownership.JibOwnershipExtension;
+import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks the Maven Jib Ownership Extension on synthetic build plans. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OwnershipBenchmark {
+
+  private static class Rule extends Configuration.Rule {
+
+    private final String glob;
+    private final String ownership;
+
+    private Rule(String glob, String ownership) {
+      this.glob = glob;
+      this.ownership = ownership;
+    }
+
+    @Override
+    public String getGlob() {
+      return glob;
+    }
+
+    @Override
+    public String getOwnership() {
+      return ownership;
+    }
+  }
+
+  private static class RuleConfiguration extends Configuration {
+
+    private final List<Configuration.Rule> rules;
+
+    private RuleConfiguration(List<Configuration.Rule> rules) {
+      this.rules = Collections.unmodifiableList(rules);
+    }
+
+    @Override
+    public List<Configuration.Rule> getRules() {
+      return rules;
+    }
+  }
+
+  private static List<Configuration.Rule> createRules(int count) {
+    List<Configuration.Rule> rules =
+        new ArrayList<>(
+            Arrays.asList(
+                new Rule("/app/classes/**", "300"),
+                new Rule("/app/resources/**", "300:500"),
+                new Rule("**/*.jar", "0:0"),
+                new Rule("/app/libs/*-SNAPSHOT.jar", "1000")));
+    for (int i = rules.size(); i < count; i++) {
+      rules.add(new Rule("/opt/extra-" + i + "/dir1*/**", i + ":" + i));
+    }
+    return rules.subList(0, count);
+  }
+
+  @Param({"1000", "10000", "200000"})
+  public int entryCount;
+
+  @Param({"4", "16"})
+  public int layerCount;
+
+  @Param({"1", "4", "16"})
+  public int ruleCount;
+
+  private ContainerBuildPlan buildPlan;
+  private Optional<Configuration> config;
+  private JibOwnershipExtension extension;
+
+  /** Prepares the build plan and the extension configuration. */
+  @Setup
+  public void setUp() {
+    buildPlan = BuildPlans.create(entryCount, layerCount);
+    config = Optional.of(new RuleConfiguration(createRules(ruleCount)));
+    extension = new JibOwnershipExtension();
+  }
+
+  /**
+   * Runs the extension once over the whole build plan.
+   *
+   * @return the build plan with ownership applied
+   * @throws JibPluginExtensionException if the extension fails
+   */
+  @Benchmark
+  @SuppressWarnings("NullAway") // no Maven data needed
+  public ContainerBuildPlan applyRules() throws JibPluginExtensionException {
+    return extension.extendContainerBuildPlan(
+        buildPlan, Collections.emptyMap(), config, null, BuildPlans.NO_OP_LOGGER);
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.benchmarks;
+
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.maven.extension.MavenData;
+import com.google.cloud.tools.jib.maven.extension.quarkus.JibQuarkusExtension;
+import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the layer assembly of the Maven Jib Quarkus Extension on a synthetic Quarkus build
+ * output (legacy-jar or fast-jar) in a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QuarkusBenchmark {
+
+  @Param({"legacy-jar", "fast-jar"})
+  public String packageType;
+
+  @Param({"100", "1000"})
+  public int jarCount;
+
+  private Path buildDirectory;
+  private Map<String, String> properties;
+  private MavenData mavenData;
+  private JibQuarkusExtension extension;
+
+  /**
+   * Creates the Quarkus build output and a project using {@code jib-maven-plugin}.
+   *
+   * @throws IOException if creating the build output fails
+   */
+  @Setup
+  public void setUp() throws IOException {
+    buildDirectory = Files.createTempDirectory("jib-quarkus-benchmark");
+    if ("fast-jar".equals(packageType)) {
+      Path quarkusApp = buildDirectory.resolve("quarkus-app");
+      createFile(quarkusApp.resolve("quarkus-run.jar"));
+      createJars(quarkusApp.resolve("lib/main"), jarCount);
+      createJars(quarkusApp.resolve("lib/boot"), 10);
+      createFile(quarkusApp.resolve("app/app-1.0.jar"));
+      createFile(quarkusApp.resolve("quarkus/generated-bytecode.jar"));
+      createFile(quarkusApp.resolve("quarkus/quarkus-application.dat"));
+    } else {
+      createFile(buildDirectory.resolve("app-runner.jar"));
+      createJars(buildDirectory.resolve("lib"), jarCount);
+    }
+
+    Artifact artifact =
+        new DefaultArtifact(
+            "com.example", "app", "1.0", null, "jar", "", new DefaultArtifactHandler("jar"));
+    artifact.setFile(buildDirectory.resolve("app-1.0.jar").toFile());
+    Plugin jibPlugin = new Plugin();
+    jibPlugin.setGroupId("com.google.cloud.tools");
+    jibPlugin.setArtifactId("jib-maven-plugin");
+
+    MavenProject project = new MavenProject();
+    project.setArtifact(artifact);
+    project.getBuild().setDirectory(buildDirectory.toString());
+    project.getBuild().setFinalName("app");
+    project.getBuild().addPlugin(jibPlugin);
+
+    properties = Collections.singletonMap("packageType", packageType);
+    mavenData = new BenchmarkMavenData(project);
+    extension = new JibQuarkusExtension();
+  }
+
+  /**
+   * Deletes the Quarkus build output.
+   *
+   * @throws IOException if deleting the build output fails
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(buildDirectory)) {
+      for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  /**
+   * Runs the extension once to assemble the layers.
+   *
+   * @return the Quarkus build plan
+   * @throws JibPluginExtensionException if the extension fails
+   */
+  @Benchmark
+  public ContainerBuildPlan assembleLayers() throws JibPluginExtensionException {
+    return extension.extendContainerBuildPlan(
+        ContainerBuildPlan.builder().build(),
+        properties,
+        Optional.empty(),
+        mavenData,
+        BuildPlans.NO_OP_LOGGER);
+  }
+
+  // Every 10th JAR is a snapshot, and one is the (augmented) project artifact.
+  private static void createJars(Path directory, int count) throws IOException {
+    createFile(directory.resolve("com.example.app-1.0.jar"));
+    for (int i = 1; i < count; i++) {
+      String version = i % 10 == 0 ? "1.0-SNAPSHOT" : "1.0";
+      createFile(directory.resolve("org.example.library-" + i + "-" + version + ".jar"));
+    }
+  }
+
+  private static void createFile(Path file) throws IOException {
+    Files.createDirectories(file.getParent());
+    Files.createFile(file);
+  }
+}
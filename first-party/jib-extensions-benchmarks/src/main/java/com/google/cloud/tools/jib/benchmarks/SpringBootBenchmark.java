@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.benchmarks;
+
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.maven.extension.MavenData;
+import com.google.cloud.tools.jib.maven.extension.springboot.JibSpringBootExtension;
+import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks devtools filtering of the Maven Jib Spring Boot Extension. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpringBootBenchmark {
+
+  @Param({"1000", "10000", "200000"})
+  public int entryCount;
+
+  @Param({"4", "16"})
+  public int layerCount;
+
+  private ContainerBuildPlan buildPlan;
+  private MavenData mavenData;
+  private JibSpringBootExtension extension;
+
+  /** Prepares the build plan and a project without {@code spring-boot-maven-plugin}. */
+  @Setup
+  public void setUp() {
+    buildPlan = BuildPlans.create(entryCount, layerCount);
+    // Without spring-boot-maven-plugin, the extension removes devtools by default.
+    mavenData = new BenchmarkMavenData(new MavenProject());
+    extension = new JibSpringBootExtension();
+  }
+
+  /**
+   * Runs the extension once over the whole build plan.
+   *
+   * @return the build plan without devtools
+   * @throws JibPluginExtensionException if the extension fails
+   */
+  @Benchmark
+  public ContainerBuildPlan filterOutDevtools() throws JibPluginExtensionException {
+    return extension.extendContainerBuildPlan(
+        buildPlan, Collections.emptyMap(), Optional.empty(), mavenData, BuildPlans.NO_OP_LOGGER);
+  }
+}
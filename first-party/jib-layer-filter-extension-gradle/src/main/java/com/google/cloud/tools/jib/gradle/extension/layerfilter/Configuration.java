@@ -16,6 +16,7 @@
 
 package com.google.cloud.tools.jib.gradle.extension.layerfilter;
 
+import java.util.ArrayList;
 import java.util.List;
 import javax.inject.Inject;
 import org.gradle.api.Action;
@@ -42,6 +43,14 @@ import org.gradle.api.tasks.Optional;
  *       toLayer = 'in-house dependencies'
  *     }
  *   }
+ *   splitStrategy {
+ *     layers = ['dependencies']
+ *     strategy = 'size'
+ *     targetLayerSize = '64MB'
+ *   }
+ *   createParentDependencyLayers = true
+ *   parentProject = ':platform'
+ *   layerHistoryFile = 'jib-layer-history.properties'
  * }
  * }</pre>
  */
@@ -71,6 +80,49 @@ public class Configuration {
     }
   }
 
+  public static class SplitStrategy {
+    private List<String> layers = new ArrayList<>();
+    private String strategy = "artifact";
+    private int count = 8;
+    private String targetLayerSize = "64MB";
+
+    @Input
+    public List<String> getLayers() {
+      return layers;
+    }
+
+    public void setLayers(List<String> layers) {
+      this.layers = layers;
+    }
+
+    @Input
+    public String getStrategy() {
+      return strategy;
+    }
+
+    public void setStrategy(String strategy) {
+      this.strategy = strategy;
+    }
+
+    @Input
+    public int getCount() {
+      return count;
+    }
+
+    public void setCount(int count) {
+      this.count = count;
+    }
+
+    @Input
+    public String getTargetLayerSize() {
+      return targetLayerSize;
+    }
+
+    public void setTargetLayerSize(String targetLayerSize) {
+      this.targetLayerSize = targetLayerSize;
+    }
+  }
+
   public static class FiltersSpec {
 
     private final Project project;
@@ -99,6 +151,11 @@ public class Configuration {
   }
 
   private final FiltersSpec filtersSpec;
+  private final SplitStrategy splitStrategy;
+  private String layerHistoryFile = "";
+  private boolean createParentDependencyLayers;
+  private String parentProject = "";
+  private String parentConfiguration = "";
 
   /**
    * Constructor used to inject a Gradle project.
@@ -108,6 +165,7 @@ public class Configuration {
   @Inject
   public Configuration(Project project) {
     filtersSpec = project.getObjects().newInstance(FiltersSpec.class, project);
+    splitStrategy = project.getObjects().newInstance(SplitStrategy.class);
   }
 
   @Nested
@@ -118,4 +176,87 @@ public class Configuration {
   public void filters(Action<? super FiltersSpec> action) {
     action.execute(filtersSpec);
   }
+
+  /**
+   * How to split layers into a fixed number of sublayers so that a changed file only invalidates
+   * its own sublayer. Splitting is applied last, after the filters. No layer is split by default.
+   *
+   * @return the split strategy
+   */
+  @Nested
+  public SplitStrategy getSplitStrategy() {
+    return splitStrategy;
+  }
+
+  public void splitStrategy(Action<? super SplitStrategy> action) {
+    action.execute(splitStrategy);
+  }
+
+  /**
+   * History file (relative to the project directory) of layer changes in previous builds. If set,
+   * layers are reordered from the least to the most frequently changing, after all other steps.
+   *
+   * @return the history file path, or an empty string if not set
+   */
+  @Input
+  @Optional
+  public String getLayerHistoryFile() {
+    return layerHistoryFile;
+  }
+
+  public void setLayerHistoryFile(String layerHistoryFile) {
+    this.layerHistoryFile = layerHistoryFile;
+  }
+
+  /**
+   * Whether to create separate layers for dependencies that come from the parent (see {@link
+   * #getParentProject()} and {@link #getParentConfiguration()}). The parent layers are created
+   * after the filters have been applied. For every original layer and every layer defined by the
+   * filters, a parent layer will be created (if not empty).
+   *
+   * @return {@code true} to create parent dependency layers
+   */
+  @Input
+  public boolean isCreateParentDependencyLayers() {
+    return createParentDependencyLayers;
+  }
+
+  public void setCreateParentDependencyLayers(boolean createParentDependencyLayers) {
+    this.createParentDependencyLayers = createParentDependencyLayers;
+  }
+
+  /**
+   * Path of the project (e.g., a shared platform project) whose dependencies are the parent
+   * dependencies. If empty, the parent dependencies are those of {@link #getParentConfiguration()}
+   * in this project.
+   *
+   * @return the parent project path, or an empty string if not set
+   */
+  @Input
+  @Optional
+  public String getParentProject() {
+    return parentProject;
+  }
+
+  public void setParentProject(String parentProject) {
+    this.parentProject = parentProject;
+  }
+
+  /**
+   * Name of the configuration whose resolved files are the parent dependencies. With {@link
+   * #getParentProject()}, this is a consumable configuration of the parent project (e.g., {@code
+   * runtimeElements}) and defaults to the Java runtime variant of the parent project. Without a
+   * parent project, this is a configuration of this project and is required.
+   *
+   * @return the parent configuration name, or an empty string if not set
+   */
+  @Input
+  @Optional
+  public String getParentConfiguration() {
+    return parentConfiguration;
+  }
+
+  public void setParentConfiguration(String parentConfiguration) {
+    this.parentConfiguration = parentConfiguration;
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.gradle.extension.layerfilter;
+
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.FileEntry;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the JAR files in layers by the artifact IDs their file names may contain. An artifact
+ * ID matches if it starts at the beginning of a file name or after a {@code -}, {@code .} or
+ * {@code _}. The index is a sorted array of the file name suffixes starting at these positions, so
+ * a lookup is a binary search rather than a scan of all files.
+ *
+ * <p>This is narrower than a plain substring search: an artifact ID never matches in the middle of
+ * a word, so {@code core} matches {@code jackson-core-2.12.3.jar} but not {@code score-1.0.jar}.
+ */
+class JarNameIndex {
+
+  private static class Suffix {
+    private final String suffix;
+    private final int fileIndex;
+
+    private Suffix(String suffix, int fileIndex) {
+      this.suffix = suffix;
+      this.fileIndex = fileIndex;
+    }
+  }
+
+  private static boolean isSeparator(char character) {
+    return character == '-' || character == '.' || character == '_';
+  }
+
+  // distinct JAR files in the layer and entry order
+  private final List<Path> files = new ArrayList<>();
+  private final List<Suffix> sortedSuffixes = new ArrayList<>();
+
+  JarNameIndex(List<FileEntriesLayer> layers) {
+    Set<Path> seenFiles = new HashSet<>();
+    for (FileEntriesLayer layer : layers) {
+      for (FileEntry entry : layer.getEntries()) {
+        Path file = entry.getSourceFile();
+        String fileName = file.getFileName().toString();
+        if (!fileName.endsWith(".jar") || !seenFiles.add(file)) {
+          continue;
+        }
+        for (int i = 0; i < fileName.length(); i++) {
+          if (i == 0 || isSeparator(fileName.charAt(i - 1))) {
+            sortedSuffixes.add(new Suffix(fileName.substring(i), files.size()));
+          }
+        }
+        files.add(file);
+      }
+    }
+    sortedSuffixes.sort(Comparator.comparing(suffix -> suffix.suffix));
+  }
+
+  /**
+   * Finds the JAR files whose file names contain {@code artifactId} at a token boundary.
+   *
+   * @param artifactId the artifact ID
+   * @return the matching files, in the layer and entry order
+   */
+  List<Path> findPotentialMatches(String artifactId) {
+    // binary search for the first suffix not less than artifactId
+    int low = 0;
+    int high = sortedSuffixes.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sortedSuffixes.get(middle).suffix.compareTo(artifactId) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    SortedSet<Integer> fileIndices = new TreeSet<>();
+    for (int i = low;
+        i < sortedSuffixes.size() && sortedSuffixes.get(i).suffix.startsWith(artifactId);
+        i++) {
+      fileIndices.add(sortedSuffixes.get(i).fileIndex);
+    }
+    return fileIndices.stream().map(files::get).collect(Collectors.toList());
+  }
+}
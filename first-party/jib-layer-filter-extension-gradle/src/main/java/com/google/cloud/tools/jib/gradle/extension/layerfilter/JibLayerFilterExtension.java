@@ -27,21 +27,43 @@ import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Verify;
-import java.nio.file.FileSystems;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.nio.file.PathMatcher;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleDependency;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.attributes.Usage;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
 
 public class JibLayerFilterExtension implements JibGradlePluginExtension<Configuration> {
 
-  private Map<PathMatcher, String> pathMatchers = new LinkedHashMap<>();
+  // compiled globs of all filters and the toLayer of each filter (in the configuration order)
+  private GlobMatcher filterMatcher = GlobMatcher.compile(Collections.emptyList());
+  private List<String> filterToLayers = Collections.emptyList();
+
+  // Extra property of the root project holding a (parent project path and configuration name,
+  // (resolved file, module name)) map to resolve each parent only once per build, however many
+  // subprojects use it. The root project lives only as long as the build (unlike a static field in
+  // a Gradle daemon) and is shared by subprojects whose extension classes come from different class
+  // loaders.
+  @VisibleForTesting
+  static final String RESOLVED_PARENT_DEPENDENCIES_PROPERTY =
+      "jibLayerFilterResolvedParentDependencies";
 
   // (layer name, layer builder) map for new layers of configured <toLayer>
   @VisibleForTesting Map<String, FileEntriesLayer.Builder> newToLayers = new LinkedHashMap<>();
@@ -65,33 +87,23 @@ public class JibLayerFilterExtension implements JibGradlePluginExtension<Configu
       return buildPlan;
     }
 
-    preparePathMatchersAndLayerBuilders(buildPlan, config.get());
+    prepareFilterMatcherAndLayerBuilders(buildPlan, config.get());
 
-    ContainerBuildPlan.Builder newPlanBuilder = buildPlan.toBuilder();
-    newPlanBuilder.setLayers(Collections.emptyList());
+    List<FileEntriesLayer> newLayers = new ArrayList<>();
 
     @SuppressWarnings("unchecked")
     List<FileEntriesLayer> originalLayers = (List<FileEntriesLayer>) buildPlan.getLayers();
-    // Start filtering original layers.
+    // Start filtering original layers. A layer whose files all stay is kept as it is.
     for (FileEntriesLayer layer : originalLayers) {
-      List<FileEntry> filesToKeep = new ArrayList<>();
-
-      for (FileEntry entry : layer.getEntries()) {
-        Optional<String> finalLayerName = determineFinalLayerName(entry, layer.getName());
-        // Either keep, move, or delete this FileEntry.
-        if (finalLayerName.isPresent()) {
-          if (finalLayerName.get().equals(layer.getName())) {
-            filesToKeep.add(entry);
-          } else {
-            FileEntriesLayer.Builder targetLayerBuilder =
-                Verify.verifyNotNull(newToLayers.get(finalLayerName.get()));
-            targetLayerBuilder.addEntry(entry);
-          }
-        }
+      FileEntriesLayer filteredLayer = layer;
+      if (filterMatcher.mayMatchPathsStartingWith(LayerTransforms.getCommonPathPrefix(layer))) {
+        filteredLayer =
+            LayerTransforms.filterEntries(layer, entry -> keepOrMove(entry, layer.getName()));
+      } else {
+        logger.log(LogLevel.DEBUG, "Skipping layer '" + layer.getName() + "': no filter can match");
       }
-
-      if (!filesToKeep.isEmpty()) {
-        newPlanBuilder.addLayer(layer.toBuilder().setEntries(filesToKeep).build());
+      if (!filteredLayer.getEntries().isEmpty()) {
+        newLayers.add(filteredLayer);
       }
     }
 
@@ -99,15 +111,315 @@ public class JibLayerFilterExtension implements JibGradlePluginExtension<Configu
     newToLayers.values().stream()
         .map(FileEntriesLayer.Builder::build)
         .filter(layer -> !layer.getEntries().isEmpty())
-        .forEach(newPlanBuilder::addLayer);
-    return newPlanBuilder.build();
+        .forEach(newLayers::add);
+    ContainerBuildPlan newPlan = LayerTransforms.setLayers(buildPlan, newLayers);
+
+    if (config.get().isCreateParentDependencyLayers()) {
+      newPlan = moveParentDepsToNewLayers(newPlan, gradleData.getProject(), config.get(), logger);
+    }
+    newPlan = splitLayers(newPlan, config.get().getSplitStrategy(), logger);
+
+    String layerHistoryFile = config.get().getLayerHistoryFile();
+    if (!layerHistoryFile.isEmpty()) {
+      logger.log(LogLevel.INFO, "Ordering layers by change frequency.");
+      Path historyFile = gradleData.getProject().getBuildDir().toPath().resolve(layerHistoryFile);
+      try {
+        newPlan = LayerChangeHistory.orderByChangeFrequency(newPlan, historyFile, logger);
+      } catch (IOException ex) {
+        throw new JibPluginExtensionException(
+            getClass(), "Error when ordering layers by change frequency", ex);
+      }
+    }
+    return newPlan;
+  }
+
+  private ContainerBuildPlan moveParentDepsToNewLayers(
+      ContainerBuildPlan buildPlan, Project project, Configuration config, ExtensionLogger logger)
+      throws JibPluginExtensionException {
+    logger.log(LogLevel.INFO, "Moving parent dependencies to new layers.");
+
+    // (file, module name) map of the parent dependencies
+    Map<Path, String> parentDependencies = getParentDependencies(project, config, logger);
+    // Parent dependencies that have not been found in any layer (due to different version or
+    // filtering). Only needed for logging.
+    Map<Path, String> parentDependenciesNotFound = new HashMap<>(parentDependencies);
+
+    List<FileEntriesLayer> newLayers = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    List<FileEntriesLayer> originalLayers = ((List<FileEntriesLayer>) buildPlan.getLayers());
+    for (FileEntriesLayer originalLayer : originalLayers) {
+      String parentLayerName = originalLayer.getName() + "-parent";
+      FileEntriesLayer.Builder parentLayerBuilder =
+          FileEntriesLayer.builder().setName(parentLayerName);
+
+      FileEntriesLayer layer =
+          LayerTransforms.filterEntries(
+              originalLayer,
+              entry -> {
+                Path sourceFilePath = entry.getSourceFile();
+                if (parentDependencies.containsKey(sourceFilePath)) {
+                  logger.log(
+                      LogLevel.DEBUG, "Moving " + sourceFilePath + " to " + parentLayerName + ".");
+                  parentLayerBuilder.addEntry(entry);
+                  parentDependenciesNotFound.remove(sourceFilePath);
+                  return false;
+                }
+                return true;
+              });
+
+      FileEntriesLayer parentLayer = parentLayerBuilder.build();
+      if (!parentLayer.getEntries().isEmpty()) {
+        newLayers.add(parentLayer);
+      }
+      if (!layer.getEntries().isEmpty()) {
+        newLayers.add(layer);
+      }
+    }
+
+    logMissingParentDependencies(logger, parentDependenciesNotFound, originalLayers);
+
+    return LayerTransforms.setLayers(buildPlan, newLayers);
+  }
+
+  private void logMissingParentDependencies(
+      ExtensionLogger logger,
+      Map<Path, String> parentDependenciesNotFound,
+      List<FileEntriesLayer> originalLayers) {
+    if (parentDependenciesNotFound.isEmpty()) {
+      return;
+    }
+
+    // Indexed once, rather than scanning all files for every missing dependency.
+    JarNameIndex jarNameIndex = new JarNameIndex(originalLayers);
+    new TreeMap<>(parentDependenciesNotFound)
+        .forEach(
+            (filePath, moduleName) -> {
+              logger.log(LogLevel.INFO, "Dependency from parent not found: " + filePath);
+              List<Path> potentialMatches = jarNameIndex.findPotentialMatches(moduleName);
+              if (!potentialMatches.isEmpty()) {
+                logger.log(
+                    LogLevel.INFO,
+                    "Potential matches: "
+                        + potentialMatches.stream()
+                            .map(Path::toString)
+                            .collect(Collectors.joining(",")));
+              }
+            });
+  }
+
+  private Map<Path, String> getParentDependencies(
+      Project project, Configuration config, ExtensionLogger logger)
+      throws JibPluginExtensionException {
+    String parentProjectPath = config.getParentProject();
+    String configurationName = config.getParentConfiguration();
+    if (parentProjectPath.isEmpty() && configurationName.isEmpty()) {
+      throw new JibPluginExtensionException(
+          getClass(),
+          "createParentDependencyLayers requires 'parentProject' or 'parentConfiguration'");
+    }
+    Project parentProject = null;
+    if (!parentProjectPath.isEmpty()) {
+      parentProject = project.findProject(parentProjectPath);
+      if (parentProject == null) {
+        throw new JibPluginExtensionException(
+            getClass(), "parent project '" + parentProjectPath + "' not found");
+      }
+    }
+
+    Map<String, Map<Path, String>> resolvedParentDependencies =
+        getResolvedParentDependencies(project);
+    String key =
+        (parentProjectPath.isEmpty() ? project.getPath() : parentProjectPath)
+            + " "
+            + configurationName;
+    Map<Path, String> parentDependencies = resolvedParentDependencies.get(key);
+    if (parentDependencies == null) {
+      // Resolved outside of any lock, so that a subproject never waits for another one that may
+      // itself be waiting for this subproject (e.g., with parallel execution).
+      parentDependencies =
+          resolveParentDependencies(project, parentProject, configurationName, logger);
+      Map<Path, String> previous = resolvedParentDependencies.putIfAbsent(key, parentDependencies);
+      if (previous != null) {
+        parentDependencies = previous;
+      }
+    }
+    return parentDependencies;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Map<Path, String>> getResolvedParentDependencies(Project project) {
+    ExtraPropertiesExtension extraProperties =
+        project.getRootProject().getExtensions().getExtraProperties();
+    synchronized (extraProperties) {
+      if (!extraProperties.has(RESOLVED_PARENT_DEPENDENCIES_PROPERTY)) {
+        extraProperties.set(
+            RESOLVED_PARENT_DEPENDENCIES_PROPERTY,
+            new ConcurrentHashMap<String, Map<Path, String>>());
+      }
+      return (Map<String, Map<Path, String>>)
+          Verify.verifyNotNull(extraProperties.get(RESOLVED_PARENT_DEPENDENCIES_PROPERTY));
+    }
   }
 
-  private void preparePathMatchersAndLayerBuilders(
+  /**
+   * Resolves the parent dependencies in this project. Dependencies of another project are resolved
+   * through a detached configuration depending on that project, instead of resolving a
+   * configuration of that project directly.
+   */
+  private Map<Path, String> resolveParentDependencies(
+      Project project,
+      @Nullable Project parentProject,
+      String configurationName,
+      ExtensionLogger logger)
+      throws JibPluginExtensionException {
+    org.gradle.api.artifacts.Configuration configuration;
+    String parentProjectPath = "";
+    String description;
+    if (parentProject == null) {
+      configuration = project.getConfigurations().findByName(configurationName);
+      if (configuration == null) {
+        throw new JibPluginExtensionException(
+            getClass(),
+            "configuration '"
+                + configurationName
+                + "' not found in project '"
+                + project.getPath()
+                + "'");
+      }
+      description = "configuration '" + configurationName + "'";
+    } else {
+      parentProjectPath = parentProject.getPath();
+      configuration =
+          project
+              .getConfigurations()
+              .detachedConfiguration(
+                  getParentProjectDependency(project, parentProject, configurationName));
+      description =
+          configurationName.isEmpty()
+              ? "parent project '" + parentProjectPath + "'"
+              : "configuration '"
+                  + configurationName
+                  + "' of parent project '"
+                  + parentProjectPath
+                  + "'";
+    }
+
+    Map<Path, String> parentDependencies = new HashMap<>();
+    try {
+      for (ResolvedArtifact artifact :
+          configuration.getResolvedConfiguration().getResolvedArtifacts()) {
+        // the parent project's own artifact is not a dependency that it brings in
+        if (isArtifactOfProject(artifact, parentProjectPath)) {
+          continue;
+        }
+        parentDependencies.put(
+            artifact.getFile().toPath(), artifact.getModuleVersion().getId().getName());
+      }
+    } catch (ResolveException ex) {
+      throw new JibPluginExtensionException(
+          getClass(), "cannot resolve the dependencies of " + description, ex);
+    }
+
+    if (parentDependencies.isEmpty()) {
+      logger.log(LogLevel.WARN, "No parent dependencies found in " + description);
+    } else {
+      logger.log(
+          LogLevel.INFO,
+          "Resolved " + parentDependencies.size() + " parent dependencies from " + description);
+    }
+    return parentDependencies;
+  }
+
+  private static boolean isArtifactOfProject(ResolvedArtifact artifact, String projectPath) {
+    ComponentIdentifier component = artifact.getId().getComponentIdentifier();
+    return component instanceof ProjectComponentIdentifier
+        && ((ProjectComponentIdentifier) component).getProjectPath().equals(projectPath);
+  }
+
+  /**
+   * Creates a dependency on the parent project. Without {@code configurationName}, the dependency
+   * selects the Java runtime variant of the parent, so it works for {@code java-platform} projects
+   * (whose dependencies declared with {@code javaPlatform.allowDependencies()} are the parent
+   * dependencies) as well as for Java projects.
+   */
+  private static Dependency getParentProjectDependency(
+      Project project, Project parentProject, String configurationName) {
+    Map<String, String> notation = new HashMap<>();
+    notation.put("path", parentProject.getPath());
+    if (!configurationName.isEmpty()) {
+      notation.put("configuration", configurationName);
+      return project.getDependencies().project(notation);
+    }
+
+    Dependency dependency = project.getDependencies().project(notation);
+    if (parentProject.getPlugins().hasPlugin("java-platform")) {
+      dependency = project.getDependencies().platform(dependency);
+    }
+    if (dependency instanceof ModuleDependency) {
+      ((ModuleDependency) dependency)
+          .attributes(
+              attributes ->
+                  attributes.attribute(
+                      Usage.USAGE_ATTRIBUTE,
+                      project.getObjects().named(Usage.class, Usage.JAVA_RUNTIME)));
+    }
+    return dependency;
+  }
+
+  private ContainerBuildPlan splitLayers(
+      ContainerBuildPlan buildPlan,
+      Configuration.SplitStrategy splitStrategy,
+      ExtensionLogger logger)
+      throws JibPluginExtensionException {
+    if (splitStrategy.getLayers().isEmpty()) {
+      return buildPlan;
+    }
+    Optional<LayerSplitter.Strategy> strategy =
+        LayerSplitter.Strategy.fromName(splitStrategy.getStrategy());
+    if (!strategy.isPresent()) {
+      throw new JibPluginExtensionException(
+          getClass(),
+          "unknown split strategy '"
+              + splitStrategy.getStrategy()
+              + "'; use 'artifact', 'path-hash' or 'size'");
+    }
+    if (splitStrategy.getCount() < 1) {
+      throw new JibPluginExtensionException(
+          getClass(),
+          "split count must be a positive integer, but got " + splitStrategy.getCount());
+    }
+    long targetSize = 0;
+    if (strategy.get() == LayerSplitter.Strategy.SIZE) {
+      try {
+        targetSize = LayerSplitter.parseSize(splitStrategy.getTargetLayerSize());
+      } catch (IllegalArgumentException ex) {
+        throw new JibPluginExtensionException(
+            getClass(),
+            "invalid target layer size '"
+                + splitStrategy.getTargetLayerSize()
+                + "'; use a positive number of bytes, optionally followed by KB, MB or GB",
+            ex);
+      }
+    }
+
+    logger.log(LogLevel.INFO, "Splitting layers " + splitStrategy.getLayers() + ".");
+    try {
+      return new LayerSplitter(
+              splitStrategy.getLayers(), strategy.get(), splitStrategy.getCount(), targetSize)
+          .split(buildPlan);
+    } catch (IOException ex) {
+      throw new JibPluginExtensionException(getClass(), "Error when reading file sizes", ex);
+    }
+  }
+
+  private void prepareFilterMatcherAndLayerBuilders(
       ContainerBuildPlan buildPlan, Configuration config) throws JibPluginExtensionException {
     List<String> originalLayerNames =
         buildPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList());
 
+    List<String> globs = new ArrayList<>();
+    List<String> toLayers = new ArrayList<>();
     newToLayers.clear(); // ensure empty (in case previously built module already populated it)
     for (Configuration.Filter filter : config.getFilters()) {
       String toLayerName = filter.getToLayer();
@@ -123,12 +435,36 @@ public class JibLayerFilterExtension implements JibGradlePluginExtension<Configu
             getClass(), "glob pattern not given in filter configuration");
       }
 
-      pathMatchers.put(
-          FileSystems.getDefault().getPathMatcher("glob:" + filter.getGlob()), filter.getToLayer());
+      globs.add(filter.getGlob());
+      toLayers.add(toLayerName);
 
       newToLayers.computeIfAbsent(
           toLayerName, layerName -> FileEntriesLayer.builder().setName(layerName));
     }
+
+    // Compiled anew for every project so that filters never carry over between projects.
+    filterMatcher = GlobMatcher.compile(globs);
+    filterToLayers = toLayers;
+  }
+
+  /**
+   * Moves this {@code fileEntry} into its new layer if a filter says so.
+   *
+   * @param fileEntry file entry in question
+   * @param originalLayerName name of the original layer where {@code fileEntry} exists
+   * @return {@code true} if {@code fileEntry} stays in the original layer; {@code false} if it has
+   *     been moved or should be deleted
+   */
+  private boolean keepOrMove(FileEntry fileEntry, String originalLayerName) {
+    Optional<String> finalLayerName = determineFinalLayerName(fileEntry, originalLayerName);
+    if (!finalLayerName.isPresent()) {
+      return false; // delete
+    }
+    if (finalLayerName.get().equals(originalLayerName)) {
+      return true;
+    }
+    Verify.verifyNotNull(newToLayers.get(finalLayerName.get())).addEntry(fileEntry);
+    return false;
   }
 
   /**
@@ -141,20 +477,13 @@ public class JibLayerFilterExtension implements JibGradlePluginExtension<Configu
    *     originalLayerName}. {@link Optional#empty()} indicates deletion.
    */
   private Optional<String> determineFinalLayerName(FileEntry fileEntry, String originalLayerName) {
-    Optional<String> finalLayerName = Optional.of(originalLayerName);
-
-    for (Map.Entry<PathMatcher, String> mapEntry : pathMatchers.entrySet()) {
-      PathMatcher matcher = mapEntry.getKey();
-      Path pathInContainer = Paths.get(fileEntry.getExtractionPath().toString());
-      if (matcher.matches(pathInContainer)) {
-        String toLayerName = mapEntry.getValue();
-        if (toLayerName.isEmpty()) {
-          finalLayerName = Optional.empty(); // Mark deletion.
-        } else {
-          finalLayerName = Optional.of(toLayerName);
-        }
-      }
+    int filterIndex = filterMatcher.lastMatchIndex(fileEntry.getExtractionPath().toString());
+    if (filterIndex < 0) {
+      return Optional.of(originalLayerName);
     }
-    return finalLayerName;
+
+    String toLayerName = filterToLayers.get(filterIndex);
+    // Empty toLayerName marks deletion.
+    return toLayerName.isEmpty() ? Optional.empty() : Optional.of(toLayerName);
   }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.gradle.extension.layerfilter;
+
+import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.FileEntry;
+import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
+import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Orders layers from the least to the most frequently changing, based on a history of previous
+ * builds kept in a properties file. Layers that change often then come last, so they do not
+ * invalidate the registry and runtime caches of the stable layers below them.
+ *
+ * <p>A later layer overrides files of an earlier layer at the same path, so layers sharing a path
+ * in the container keep their relative order. The "extra files" layers stay last, as Jib places
+ * them to take precedence over the application layers.
+ */
+class LayerChangeHistory {
+
+  // Weight of the latest build in the change frequency, an exponentially weighted moving average
+  // of whether a layer changed in each build.
+  private static final double LATEST_BUILD_WEIGHT = 0.5;
+
+  // How far the change frequency of a layer must drift from the one it was last ranked by before
+  // the layer moves. Keeps the order (and thus the cache) stable when a layer changes now and then.
+  private static final double RANK_HYSTERESIS = 0.25;
+
+  // Name of the Jib "extra files" layers (JavaContainerBuilder.LayerType.EXTRA_FILES), or the
+  // prefix of their sublayers.
+  private static final String EXTRA_FILES_LAYER_NAME = "extra files";
+
+  private static final String FINGERPRINT_SUFFIX = ".fingerprint";
+  private static final String CHANGE_FREQUENCY_SUFFIX = ".changeFrequency";
+  private static final String RANK_FREQUENCY_SUFFIX = ".rankFrequency";
+
+  /**
+   * Reorders the layers of {@code buildPlan} by change frequency and records this build in {@code
+   * historyFile}. A layer without history counts as always changing, so the first build keeps the
+   * original order. Layers with the same change frequency keep their relative order, and a layer
+   * only moves once its change frequency drifts clearly from the one it was last ranked by.
+   *
+   * @param buildPlan the build plan
+   * @param historyFile the history file; created if it does not exist
+   * @param logger logger for writing log messages
+   * @return the build plan with reordered layers
+   * @throws IOException if reading the history, reading file attributes or writing the history
+   *     fails
+   */
+  static ContainerBuildPlan orderByChangeFrequency(
+      ContainerBuildPlan buildPlan, Path historyFile, ExtensionLogger logger) throws IOException {
+    Properties history = new Properties();
+    if (Files.exists(historyFile)) {
+      try (InputStream input = Files.newInputStream(historyFile)) {
+        history.load(input);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    List<FileEntriesLayer> layers = (List<FileEntriesLayer>) buildPlan.getLayers();
+    Properties newHistory = new Properties();
+    Map<FileEntriesLayer, Double> rankFrequencies = new IdentityHashMap<>();
+    for (FileEntriesLayer layer : layers) {
+      String name = layer.getName();
+      String fingerprint = fingerprint(layer);
+      String previousFingerprint = history.getProperty(name + FINGERPRINT_SUFFIX);
+      String previousChangeFrequency = history.getProperty(name + CHANGE_FREQUENCY_SUFFIX);
+      String previousRankFrequency = history.getProperty(name + RANK_FREQUENCY_SUFFIX);
+
+      double changeFrequency = 1;
+      double rankFrequency = 1;
+      if (previousFingerprint != null && previousChangeFrequency != null) {
+        double changed = fingerprint.equals(previousFingerprint) ? 0 : 1;
+        changeFrequency =
+            LATEST_BUILD_WEIGHT * changed
+                + (1 - LATEST_BUILD_WEIGHT) * parseChangeFrequency(previousChangeFrequency);
+        rankFrequency =
+            previousRankFrequency == null ? 1 : parseChangeFrequency(previousRankFrequency);
+        if (Math.abs(changeFrequency - rankFrequency) > RANK_HYSTERESIS) {
+          rankFrequency = changeFrequency;
+        }
+      }
+      logger.log(
+          LogLevel.DEBUG,
+          "Change frequency of layer '"
+              + name
+              + "': "
+              + changeFrequency
+              + " (ranked by "
+              + rankFrequency
+              + ")");
+
+      rankFrequencies.put(layer, rankFrequency);
+      newHistory.setProperty(name + FINGERPRINT_SUFFIX, fingerprint);
+      newHistory.setProperty(name + CHANGE_FREQUENCY_SUFFIX, String.valueOf(changeFrequency));
+      newHistory.setProperty(name + RANK_FREQUENCY_SUFFIX, String.valueOf(rankFrequency));
+    }
+
+    // Layers not in this build are dropped, so the history does not grow without bounds.
+    if (historyFile.getParent() != null) {
+      Files.createDirectories(historyFile.getParent());
+    }
+    try (OutputStream output = Files.newOutputStream(historyFile)) {
+      newHistory.store(output, "Jib Layer Filter Extension layer change history");
+    }
+
+    Comparator<Integer> rank =
+        Comparator.<Integer, Boolean>comparing(index -> isExtraFilesLayer(layers.get(index)))
+            .thenComparing(index -> rankFrequencies.getOrDefault(layers.get(index), 1.0))
+            .thenComparing(index -> index);
+    List<FileEntriesLayer> newLayers = new ArrayList<>(layers.size());
+    for (int index : order(layers.size(), overlappingPredecessors(layers), rank)) {
+      newLayers.add(layers.get(index));
+    }
+    return LayerTransforms.setLayers(buildPlan, newLayers);
+  }
+
+  private static boolean isExtraFilesLayer(FileEntriesLayer layer) {
+    return layer.getName().equals(EXTRA_FILES_LAYER_NAME)
+        || layer.getName().startsWith(EXTRA_FILES_LAYER_NAME + "-");
+  }
+
+  /**
+   * Finds, for each layer, the earlier layers that must stay before it because they share a path in
+   * the container. Only the closest earlier layer per path is recorded; the rest follow by
+   * transitivity.
+   *
+   * @param layers the layers in their original order
+   * @return for each layer index, the indices of the layers that must precede it
+   */
+  private static List<Set<Integer>> overlappingPredecessors(List<FileEntriesLayer> layers) {
+    Map<AbsoluteUnixPath, Integer> lastLayerWithPath = new HashMap<>();
+    List<Set<Integer>> predecessors = new ArrayList<>(layers.size());
+    for (int index = 0; index < layers.size(); index++) {
+      Set<Integer> layerPredecessors = new HashSet<>();
+      for (FileEntry entry : layers.get(index).getEntries()) {
+        Integer previous = lastLayerWithPath.put(entry.getExtractionPath(), index);
+        if (previous != null && previous != index) {
+          layerPredecessors.add(previous);
+        }
+      }
+      predecessors.add(layerPredecessors);
+    }
+    return predecessors;
+  }
+
+  /**
+   * Orders layer indices by {@code rank}, repeatedly taking the best ranked layer whose
+   * predecessors are all placed already.
+   *
+   * @param layerCount the number of layers
+   * @param predecessors for each layer index, the indices that must precede it
+   * @param rank the preferred order of the layer indices
+   * @return the layer indices in their new order
+   */
+  private static List<Integer> order(
+      int layerCount, List<Set<Integer>> predecessors, Comparator<Integer> rank) {
+    List<Integer> order = new ArrayList<>(layerCount);
+    boolean[] placed = new boolean[layerCount];
+    while (order.size() < layerCount) {
+      // Predecessors always have smaller indices, so the first unplaced layer is always ready.
+      int next = -1;
+      for (int index = 0; index < layerCount; index++) {
+        if (placed[index] || (next != -1 && rank.compare(index, next) >= 0)) {
+          continue;
+        }
+        boolean ready = true;
+        for (int predecessor : predecessors.get(index)) {
+          ready &= placed[predecessor];
+        }
+        if (ready) {
+          next = index;
+        }
+      }
+      placed[next] = true;
+      order.add(next);
+    }
+    return order;
+  }
+
+  /**
+   * Computes a fingerprint of the contents of a layer from the path in the container, the size and
+   * the last modified time of each file. Reading file attributes is much cheaper than hashing the
+   * file contents, at the cost of counting a rewritten but identical file as a change.
+   *
+   * @param layer the layer
+   * @return the fingerprint
+   * @throws IOException if reading file attributes fails
+   */
+  @VisibleForTesting
+  static String fingerprint(FileEntriesLayer layer) throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (FileEntry entry : layer.getEntries()) {
+      BasicFileAttributes attributes =
+          Files.readAttributes(entry.getSourceFile(), BasicFileAttributes.class);
+      hasher
+          .putString(entry.getExtractionPath().toString(), StandardCharsets.UTF_8)
+          .putLong(attributes.size())
+          .putLong(attributes.lastModifiedTime().toMillis());
+    }
+    return hasher.hash().toString();
+  }
+
+  private static double parseChangeFrequency(String changeFrequency) {
+    try {
+      double value = Double.parseDouble(changeFrequency);
+      return value >= 0 && value <= 1 ? value : 1;
+    } catch (NumberFormatException ex) {
+      return 1; // corrupt history; count as always changing
+    }
+  }
+}
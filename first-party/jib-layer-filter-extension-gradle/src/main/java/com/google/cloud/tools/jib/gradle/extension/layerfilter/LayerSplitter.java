@@ -0,0 +1,241 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.gradle.extension.layerfilter;
+
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.FileEntry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits layers into sublayers by a stable partitioning of their entries. An entry lands in the
+ * same sublayer across builds as long as the layer does not change much, so a changed file only
+ * invalidates its own sublayer.
+ */
+class LayerSplitter {
+
+  /** How to assign an entry to a sublayer. */
+  enum Strategy {
+    /** By artifact name (JAR file name without version); other files by path. */
+    ARTIFACT("artifact"),
+    /** By path in the container. */
+    PATH_HASH("path-hash"),
+    /** By packing entries into sublayers of about a target size. */
+    SIZE("size");
+
+    private final String name;
+
+    Strategy(String name) {
+      this.name = name;
+    }
+
+    static Optional<Strategy> fromName(String name) {
+      for (Strategy strategy : values()) {
+        if (strategy.name.equals(name)) {
+          return Optional.of(strategy);
+        }
+      }
+      return Optional.empty();
+    }
+  }
+
+  private static final Pattern SIZE_PATTERN = Pattern.compile("(\\d+)\\s*([KMG]?B)?");
+
+  // With the size strategy, a sublayer holding at least half the target size also ends after
+  // about one in this many entries, chosen by artifact key. Such boundaries do not move when
+  // entries before them change, so later sublayers stay the same.
+  private static final int SIZE_BOUNDARY_DIVISOR = 4;
+
+  /**
+   * Parses a size such as {@code 64MB}. The units {@code KB}, {@code MB} and {@code GB} are
+   * binary multiples (1 KB = 1024 bytes); a plain number is in bytes.
+   *
+   * @param size the size string
+   * @return the size in bytes
+   * @throws IllegalArgumentException if {@code size} is not a valid positive size
+   */
+  static long parseSize(String size) {
+    Matcher matcher = SIZE_PATTERN.matcher(size.trim().toUpperCase(Locale.ROOT));
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("invalid size: " + size);
+    }
+    String unit = matcher.group(2) == null ? "B" : matcher.group(2);
+    int shift = "KB".equals(unit) ? 10 : "MB".equals(unit) ? 20 : "GB".equals(unit) ? 30 : 0;
+    try {
+      long bytes = Long.parseLong(matcher.group(1));
+      if (bytes <= 0 || bytes > Long.MAX_VALUE >> shift) {
+        throw new IllegalArgumentException("invalid size: " + size);
+      }
+      return bytes << shift;
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("invalid size: " + size, ex);
+    }
+  }
+
+  private final Set<String> layerNames;
+  private final Strategy strategy;
+  private final int count;
+  private final long targetSize;
+
+  /**
+   * Creates a splitter.
+   *
+   * @param layerNames names of the layers to split
+   * @param strategy how to assign entries to sublayers
+   * @param count number of sublayers for the hash-based strategies
+   * @param targetSize target sublayer size in bytes for {@link Strategy#SIZE}
+   */
+  LayerSplitter(List<String> layerNames, Strategy strategy, int count, long targetSize) {
+    this.layerNames = new HashSet<>(layerNames);
+    this.strategy = strategy;
+    this.count = count;
+    this.targetSize = targetSize;
+  }
+
+  /**
+   * Replaces each layer to split in {@code buildPlan} with its non-empty sublayers, named {@code
+   * <layer name>-1}, {@code <layer name>-2}, and so on. Entries keep their relative order.
+   *
+   * @param buildPlan the build plan
+   * @return the build plan with split layers
+   * @throws IOException if reading the size of a file fails
+   */
+  ContainerBuildPlan split(ContainerBuildPlan buildPlan) throws IOException {
+    @SuppressWarnings("unchecked")
+    List<FileEntriesLayer> layers = (List<FileEntriesLayer>) buildPlan.getLayers();
+    List<FileEntriesLayer> newLayers = new ArrayList<>();
+    for (FileEntriesLayer layer : layers) {
+      if (!layerNames.contains(layer.getName())) {
+        newLayers.add(layer);
+        continue;
+      }
+
+      List<FileEntry> entries = layer.getEntries();
+      int[] sublayerIndices =
+          strategy == Strategy.SIZE ? packBySize(entries) : partitionByHash(entries);
+      List<FileEntriesLayer.Builder> sublayerBuilders = new ArrayList<>();
+      for (int i = 0; i < entries.size(); i++) {
+        while (sublayerBuilders.size() <= sublayerIndices[i]) {
+          sublayerBuilders.add(
+              FileEntriesLayer.builder()
+                  .setName(layer.getName() + "-" + (sublayerBuilders.size() + 1)));
+        }
+        sublayerBuilders.get(sublayerIndices[i]).addEntry(entries.get(i));
+      }
+      sublayerBuilders.stream()
+          .map(FileEntriesLayer.Builder::build)
+          .filter(sublayer -> !sublayer.getEntries().isEmpty())
+          .forEach(newLayers::add);
+    }
+    return LayerTransforms.setLayers(buildPlan, newLayers);
+  }
+
+  private int[] partitionByHash(List<FileEntry> entries) {
+    int[] sublayerIndices = new int[entries.size()];
+    for (int i = 0; i < entries.size(); i++) {
+      FileEntry entry = entries.get(i);
+      String key =
+          strategy == Strategy.ARTIFACT
+              ? getArtifactKey(entry)
+              : entry.getExtractionPath().toString();
+      sublayerIndices[i] = (int) Math.floorMod(hash(key), (long) count);
+    }
+    return sublayerIndices;
+  }
+
+  /**
+   * Packs entries, in the order of their paths in the container, into consecutive sublayers of at
+   * most the target size (unless a single file is larger). File sizes are read once each, before
+   * packing.
+   */
+  private int[] packBySize(List<FileEntry> entries) throws IOException {
+    long[] sizes = new long[entries.size()];
+    for (int i = 0; i < entries.size(); i++) {
+      BasicFileAttributes attributes =
+          Files.readAttributes(entries.get(i).getSourceFile(), BasicFileAttributes.class);
+      sizes[i] = attributes.isRegularFile() ? attributes.size() : 0;
+    }
+
+    // Packing by path rather than by the given order keeps sublayers stable when the classpath
+    // order changes.
+    List<Integer> order = new ArrayList<>(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      order.add(i);
+    }
+    order.sort(Comparator.comparing(i -> entries.get(i).getExtractionPath().toString()));
+
+    int[] sublayerIndices = new int[entries.size()];
+    int sublayerIndex = 0;
+    long sublayerSize = 0;
+    for (int i : order) {
+      if (sublayerSize > 0 && sublayerSize + sizes[i] > targetSize) {
+        sublayerIndex++;
+        sublayerSize = 0;
+      }
+      sublayerIndices[i] = sublayerIndex;
+      sublayerSize += sizes[i];
+
+      if (sublayerSize >= targetSize / 2
+          && Math.floorMod(hash(getArtifactKey(entries.get(i))), (long) SIZE_BOUNDARY_DIVISOR)
+              == 0) {
+        sublayerIndex++;
+        sublayerSize = 0;
+      }
+    }
+    return sublayerIndices;
+  }
+
+  private static long hash(String key) {
+    return Hashing.farmHashFingerprint64().hashString(key, StandardCharsets.UTF_8).asLong();
+  }
+
+  /**
+   * Gets the key identifying the artifact of an entry independent of its version: the JAR file
+   * name up to the first {@code -} followed by a digit (for example, {@code guava} for {@code
+   * guava-30.1.1-jre.jar}). Files other than JARs are identified by their path in the container.
+   *
+   * @param entry the entry
+   * @return the key
+   */
+  @VisibleForTesting
+  static String getArtifactKey(FileEntry entry) {
+    String fileName = entry.getExtractionPath().getFileName();
+    if (!fileName.endsWith(".jar")) {
+      return entry.getExtractionPath().toString();
+    }
+    for (int i = 0; i < fileName.length() - 1; i++) {
+      if (fileName.charAt(i) == '-' && Character.isDigit(fileName.charAt(i + 1))) {
+        return fileName.substring(0, i);
+      }
+    }
+    return fileName.substring(0, fileName.length() - ".jar".length());
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.gradle.extension.layerfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+import org.junit.Test;
+
+/** Tests for {@link GlobMatcher}. */
+public class GlobMatcherTest {
+
+  private static boolean matches(String glob, String path) {
+    return GlobMatcher.compile(Collections.singletonList(glob)).lastMatchIndex(path) == 0;
+  }
+
+  @Test
+  public void testLastMatchIndex_noGlobs() {
+    assertEquals(-1, GlobMatcher.compile(Collections.emptyList()).lastMatchIndex("/foo"));
+  }
+
+  @Test
+  public void testLastMatchIndex_stars() {
+    assertTrue(matches("/app/*", "/app/foo.jar"));
+    assertFalse(matches("/app/*", "/app/libs/foo.jar"));
+    assertTrue(matches("/app/**", "/app/libs/foo.jar"));
+    assertFalse(matches("/app/**", "/app/")); // trailing "/" ignored, as by Paths.get()
+    assertFalse(matches("/app/**", "/app"));
+    assertTrue(matches("**/*.jar", "/app/libs/foo.jar"));
+    assertFalse(matches("**/*.jar", "foo.jar"));
+    assertTrue(matches("/a/**/b", "/a/x/y/b"));
+    assertFalse(matches("/a/**/b", "/a/b"));
+    assertTrue(matches("**", "/"));
+    assertFalse(matches("*", "/"));
+  }
+
+  @Test
+  public void testLastMatchIndex_questionMark() {
+    assertTrue(matches("/?????/*", "/alpha/Bob"));
+    assertFalse(matches("/?????/*", "/beta/Bob"));
+    assertFalse(matches("/a?b", "/a/b"));
+  }
+
+  @Test
+  public void testLastMatchIndex_bracketExpressions() {
+    assertTrue(matches("/[a-c]x", "/bx"));
+    assertFalse(matches("/[a-c]x", "/dx"));
+    assertTrue(matches("/[!a-c]x", "/dx"));
+    assertFalse(matches("/[!a-c]x", "/ax"));
+    assertFalse(matches("/a[!b]c", "/a/c"));
+    assertTrue(matches("/[^a]x", "/^x"));
+    assertTrue(matches("/[-a]x", "/-x"));
+    assertTrue(matches("/[a-]x", "/-x"));
+  }
+
+  @Test
+  public void testLastMatchIndex_groups() {
+    assertTrue(matches("/{foo,bar}/**", "/bar/baz"));
+    assertFalse(matches("/{foo,bar}/**", "/baz/bar"));
+    assertTrue(matches("/{,x}y", "/y"));
+    assertTrue(matches("/ab/{c*,d?}/e", "/ab/dz/e"));
+    assertFalse(matches("/ab/{c*,d?}/e", "/ab/dzz/e"));
+  }
+
+  @Test
+  public void testLastMatchIndex_sameAsJdkPathMatcher() {
+    List<String> globs =
+        Arrays.asList(
+            "**",
+            "*",
+            "/*",
+            "/**",
+            "**/*.jar",
+            "/app/**",
+            "/app/*",
+            "/app/libs/*.jar",
+            "**/libs/**",
+            "/a/?.txt",
+            "/a/[a-c]*",
+            "/a/[!a-c]*",
+            "/a/{b,c}/**",
+            "/a/{b,c*}",
+            "/a/{,b}",
+            "/a/**/b",
+            "/a/**b",
+            "/a/\\*",
+            "/a/b/",
+            "/a//b",
+            "/a/./b",
+            "/**/");
+    List<String> paths =
+        Arrays.asList(
+            "/",
+            "/a",
+            "/a/",
+            "/a/b",
+            "/a/b/",
+            "/a//b",
+            "//a/b",
+            "/a/./b",
+            "/a/../b",
+            "/a/b/c",
+            "/a/b//c",
+            "/a/x.txt",
+            "/a/*",
+            "/app/libs/x.jar",
+            "/app//libs/x.jar",
+            "/app/libs/x.jar/",
+            "/app/libs/",
+            "a/b");
+    for (String glob : globs) {
+      PathMatcher jdkMatcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+      for (String path : paths) {
+        assertEquals(
+            "glob " + glob + ", path " + path,
+            jdkMatcher.matches(Paths.get(path)),
+            matches(glob, path));
+      }
+    }
+  }
+
+  @Test
+  public void testLastMatchIndex_escapes() {
+    assertTrue(matches("/a\\*b", "/a*b"));
+    assertFalse(matches("/a\\*b", "/axb"));
+    assertTrue(matches("/a\\{b", "/a{b"));
+  }
+
+  @Test
+  public void testLastMatchIndex_lastMatchWins() {
+    GlobMatcher matcher =
+        GlobMatcher.compile(Arrays.asList("**", "/app/**", "**/*.jar", "/nothing/matches"));
+
+    assertEquals(0, matcher.lastMatchIndex("/etc/config"));
+    assertEquals(1, matcher.lastMatchIndex("/app/resources/config"));
+    assertEquals(2, matcher.lastMatchIndex("/app/libs/foo.jar"));
+    assertEquals(2, matcher.lastMatchIndex("/lib/foo.jar"));
+    // matching the same path again uses cached states
+    assertEquals(2, matcher.lastMatchIndex("/app/libs/foo.jar"));
+  }
+
+  @Test
+  public void testLastMatchIndex_nonAsciiCharacters() {
+    GlobMatcher matcher =
+        GlobMatcher.compile(Arrays.asList("/d\u00e9j\u00e0/*", "/[\u00e0-\u00ff]"));
+    assertEquals(0, matcher.lastMatchIndex("/d\u00e9j\u00e0/vu"));
+    assertEquals(1, matcher.lastMatchIndex("/\u00e9"));
+    assertEquals(-1, matcher.lastMatchIndex("/e"));
+  }
+
+  @Test
+  public void testMayMatchPathsStartingWith() {
+    GlobMatcher matcher = GlobMatcher.compile(Arrays.asList("/app/resources/**", "/app/lib?/*"));
+    assertTrue(matcher.mayMatchPathsStartingWith("/app/resources/static/"));
+    assertTrue(matcher.mayMatchPathsStartingWith("/app/"));
+    assertTrue(matcher.mayMatchPathsStartingWith("/app/libs/"));
+    assertTrue(matcher.mayMatchPathsStartingWith(""));
+    assertFalse(matcher.mayMatchPathsStartingWith("/app/classes/"));
+    assertFalse(matcher.mayMatchPathsStartingWith("/opt/"));
+
+    GlobMatcher anywhere = GlobMatcher.compile(Arrays.asList("/app/resources/**", "**/*.jar"));
+    assertTrue(anywhere.mayMatchPathsStartingWith("/opt/"));
+
+    assertFalse(GlobMatcher.compile(Collections.emptyList()).mayMatchPathsStartingWith("/"));
+  }
+
+  @Test
+  public void testCompile_invalidGlobs() {
+    assertThrows(PatternSyntaxException.class, () -> matches("/[abc", ""));
+    assertThrows(PatternSyntaxException.class, () -> matches("/[b-a]", ""));
+    assertThrows(PatternSyntaxException.class, () -> matches("/[a/b]", ""));
+    assertThrows(PatternSyntaxException.class, () -> matches("/{a,{b}}", ""));
+    assertThrows(PatternSyntaxException.class, () -> matches("/{a,b", ""));
+    assertThrows(PatternSyntaxException.class, () -> matches("/a\\", ""));
+  }
+}
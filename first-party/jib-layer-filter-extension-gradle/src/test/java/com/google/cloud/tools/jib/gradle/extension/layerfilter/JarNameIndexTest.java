@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.gradle.extension.layerfilter;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/** Tests for {@link JarNameIndex}. */
+public class JarNameIndexTest {
+
+  private static FileEntriesLayer buildLayer(String... sourcePaths) {
+    FileEntriesLayer.Builder builder = FileEntriesLayer.builder().setName("layer");
+    for (String sourcePath : sourcePaths) {
+      builder.addEntry(Paths.get(sourcePath), AbsoluteUnixPath.get("/app/" + sourcePath));
+    }
+    return builder.build();
+  }
+
+  private static List<Path> paths(String... paths) {
+    return Arrays.stream(paths).map(Paths::get).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testFindPotentialMatches() {
+    JarNameIndex index =
+        new JarNameIndex(
+            Arrays.asList(
+                buildLayer("libs/guava-30.1.1-jre.jar", "libs/guava-testlib-30.1.1-jre.jar"),
+                buildLayer("libs/failureaccess-1.0.1.jar", "libs/com.google.guava_guava.jar")));
+
+    assertEquals(
+        paths(
+            "libs/guava-30.1.1-jre.jar",
+            "libs/guava-testlib-30.1.1-jre.jar",
+            "libs/com.google.guava_guava.jar"),
+        index.findPotentialMatches("guava"));
+    assertEquals(paths("libs/guava-testlib-30.1.1-jre.jar"), index.findPotentialMatches("testlib"));
+    assertEquals(paths("libs/failureaccess-1.0.1.jar"), index.findPotentialMatches("failure"));
+    // only at the start or after '-', '.' or '_'
+    assertEquals(Collections.emptyList(), index.findPotentialMatches("access"));
+    assertEquals(Collections.emptyList(), index.findPotentialMatches("zzz"));
+  }
+
+  @Test
+  public void testFindPotentialMatches_notInsideWords() {
+    JarNameIndex index =
+        new JarNameIndex(
+            Collections.singletonList(
+                buildLayer("libs/jackson-core-2.12.3.jar", "libs/score-1.0.jar")));
+
+    // unlike String.contains(), which would also match "score-1.0.jar"
+    assertEquals(paths("libs/jackson-core-2.12.3.jar"), index.findPotentialMatches("core"));
+  }
+
+  @Test
+  public void testFindPotentialMatches_nonJarFilesAndDuplicatesIgnored() {
+    JarNameIndex index =
+        new JarNameIndex(
+            Arrays.asList(
+                buildLayer("libs/lib-1.0.jar", "libs/lib-1.0.pom"),
+                buildLayer("libs/lib-1.0.jar")));
+
+    assertEquals(paths("libs/lib-1.0.jar"), index.findPotentialMatches("lib"));
+  }
+}
@@ -19,7 +19,13 @@ package com.google.cloud.tools.jib.gradle.extension.layerfilter;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,15 +33,27 @@ import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
 import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
 import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
 import com.google.cloud.tools.jib.api.buildplan.LayerObject;
+import com.google.cloud.tools.jib.gradle.extension.GradleData;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.io.File;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ResolveException;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.ResolvedConfiguration;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -48,6 +66,12 @@ public class JibLayerFilterExtensionTest {
   @Mock private Configuration config;
   @Mock private ExtensionLogger logger;
 
+  @Before
+  public void setUp() {
+    when(config.getSplitStrategy()).thenReturn(new Configuration.SplitStrategy());
+    when(config.getLayerHistoryFile()).thenReturn("");
+  }
+
   private static FileEntriesLayer buildLayer(String layerName, List<String> filePaths) {
     FileEntriesLayer.Builder builder = FileEntriesLayer.builder().setName(layerName);
     for (String path : filePaths) {
@@ -69,6 +93,69 @@ public class JibLayerFilterExtensionTest {
     return filter;
   }
 
+  private static Configuration.SplitStrategy splitStrategy(
+      List<String> layers, String strategy, int count) {
+    Configuration.SplitStrategy splitStrategy = new Configuration.SplitStrategy();
+    splitStrategy.setLayers(layers);
+    splitStrategy.setStrategy(strategy);
+    splitStrategy.setCount(count);
+    return splitStrategy;
+  }
+
+  private static ResolvedArtifact mockResolvedArtifact(String file, String moduleName) {
+    ResolvedArtifact artifact = mock(ResolvedArtifact.class, RETURNS_DEEP_STUBS);
+    when(artifact.getFile()).thenReturn(new File(file));
+    when(artifact.getModuleVersion().getId().getName()).thenReturn(moduleName);
+    return artifact;
+  }
+
+  private static org.gradle.api.artifacts.Configuration mockParentDependencies(
+      ResolvedArtifact... artifacts) {
+    ResolvedConfiguration resolvedConfiguration = mock(ResolvedConfiguration.class);
+    when(resolvedConfiguration.getResolvedArtifacts())
+        .thenReturn(new LinkedHashSet<>(Arrays.asList(artifacts)));
+    org.gradle.api.artifacts.Configuration configuration =
+        mock(org.gradle.api.artifacts.Configuration.class);
+    when(configuration.getResolvedConfiguration()).thenReturn(resolvedConfiguration);
+    return configuration;
+  }
+
+  /** Mocks a root project whose extra properties are backed by a map. */
+  private static Project mockRootProject() {
+    Map<String, Object> properties = new HashMap<>();
+    ExtraPropertiesExtension extraProperties = mock(ExtraPropertiesExtension.class);
+    when(extraProperties.has(anyString()))
+        .thenAnswer(invocation -> properties.containsKey(invocation.<String>getArgument(0)));
+    when(extraProperties.get(anyString()))
+        .thenAnswer(invocation -> properties.get(invocation.<String>getArgument(0)));
+    doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1)))
+        .when(extraProperties)
+        .set(anyString(), any());
+    Project rootProject = mock(Project.class, RETURNS_DEEP_STUBS);
+    when(rootProject.getExtensions().getExtraProperties()).thenReturn(extraProperties);
+    return rootProject;
+  }
+
+  /** Mocks a subproject in the build of {@code rootProject}, with a ':platform' parent project. */
+  private static GradleData mockGradleData(Project rootProject) {
+    Project project = mock(Project.class, RETURNS_DEEP_STUBS);
+    when(project.getRootProject()).thenReturn(rootProject);
+    when(project.findProject(":platform")).thenReturn(mock(Project.class, RETURNS_DEEP_STUBS));
+    GradleData gradleData = mock(GradleData.class);
+    when(gradleData.getProject()).thenReturn(project);
+    return gradleData;
+  }
+
+  /** Mocks a subproject that resolves {@code parentDependencies} from the parent project. */
+  private static GradleData mockGradleData(
+      Project rootProject, org.gradle.api.artifacts.Configuration parentDependencies) {
+    GradleData gradleData = mockGradleData(rootProject);
+    Project project = gradleData.getProject();
+    when(project.findProject(":platform").getPath()).thenReturn(":platform");
+    when(project.getConfigurations().detachedConfiguration(any())).thenReturn(parentDependencies);
+    return gradleData;
+  }
+
   @Test
   public void testExtendContainerBuildPlan_noConfiguration() throws JibPluginExtensionException {
     ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
@@ -234,6 +321,56 @@ public class JibLayerFilterExtensionTest {
     assertEquals(layer.getEntries(), newLayer.getEntries());
   }
 
+  @Test
+  public void testExtendContainerBuildPlan_unchangedLayersKeptAsIs()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer1 = buildLayer("foo", Arrays.asList("/alpha/Alice", "/alpha/Bob"));
+    FileEntriesLayer layer2 = buildLayer("bar", Arrays.asList("/beta/Alice", "/beta/Bob"));
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().setLayers(Arrays.asList(layer1, layer2)).build();
+
+    Configuration.Filter filter = mockFilter("/gamma/**", "gamma");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter));
+
+    ContainerBuildPlan newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+    assertSame(buildPlan, newPlan);
+
+    Configuration.Filter filter2 = mockFilter("/beta/Bob", "Bob");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter, filter2));
+
+    newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+    assertEquals(3, newPlan.getLayers().size());
+    assertSame(layer1, newPlan.getLayers().get(0));
+    FileEntriesLayer newLayer2 = (FileEntriesLayer) newPlan.getLayers().get(1);
+    assertEquals(Arrays.asList("/beta/Alice"), layerToExtractionPaths(newLayer2));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_layersNoFilterCanMatchSkipped()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer1 = buildLayer("foo", Arrays.asList("/alpha/Alice", "/alpha/Bob"));
+    FileEntriesLayer layer2 = buildLayer("bar", Arrays.asList("/beta/Alice", "/beta/Bob"));
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().setLayers(Arrays.asList(layer1, layer2)).build();
+
+    Configuration.Filter filter = mockFilter("/beta/A*", "Alice");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter));
+
+    ContainerBuildPlan newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+
+    verify(logger).log(LogLevel.DEBUG, "Skipping layer 'foo': no filter can match");
+    verify(logger, never()).log(LogLevel.DEBUG, "Skipping layer 'bar': no filter can match");
+    List<String> layerNames =
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList());
+    assertEquals(Arrays.asList("foo", "bar", "Alice"), layerNames);
+  }
+
   @Test
   public void testExtendContainerBuildPlan_complex() throws JibPluginExtensionException {
     FileEntriesLayer layer1 =
@@ -340,4 +477,340 @@ public class JibLayerFilterExtensionTest {
         newLayer1M2.getEntries());
     assertEquals(buildLayer("", Arrays.asList("/m2/bar/b")).getEntries(), newLayer2M2.getEntries());
   }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers() throws JibPluginExtensionException {
+    FileEntriesLayer layer =
+        buildLayer(
+            "dependencies",
+            Arrays.asList(
+                "/app/libs/a-1.0.jar",
+                "/app/libs/b-1.0.jar",
+                "/app/libs/c-1.0.jar",
+                "/app/libs/in-house-1.0.jar"));
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    Configuration.Filter filter = mockFilter("/app/libs/in-house-*.jar", "in-house");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter));
+    when(config.getSplitStrategy())
+        .thenReturn(splitStrategy(Arrays.asList("dependencies", "in-house"), "artifact", 2));
+
+    ContainerBuildPlan newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+
+    List<String> layerNames =
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList());
+    // split after filtering, so the in-house JAR is in a sublayer of the "in-house" layer
+    assertEquals(
+        layerNames.toString(),
+        1,
+        layerNames.stream().filter(name -> name.startsWith("in-house-")).count());
+    List<String> dependencyPaths = new ArrayList<>();
+    for (LayerObject newLayer : newPlan.getLayers()) {
+      if (newLayer.getName().startsWith("dependencies-")) {
+        dependencyPaths.addAll(layerToExtractionPaths((FileEntriesLayer) newLayer));
+      }
+    }
+    dependencyPaths.sort(null);
+    assertEquals(
+        Arrays.asList("/app/libs/a-1.0.jar", "/app/libs/b-1.0.jar", "/app/libs/c-1.0.jar"),
+        dependencyPaths);
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers_unknownStrategy() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.getSplitStrategy())
+        .thenReturn(splitStrategy(Arrays.asList("dependencies"), "random", 8));
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals(
+          "unknown split strategy 'random'; use 'artifact', 'path-hash' or 'size'",
+          ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers_invalidCount() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.getSplitStrategy())
+        .thenReturn(splitStrategy(Arrays.asList("dependencies"), "path-hash", 0));
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals("split count must be a positive integer, but got 0", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers_invalidTargetLayerSize() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    Configuration.SplitStrategy splitStrategy =
+        splitStrategy(Arrays.asList("dependencies"), "size", 8);
+    splitStrategy.setTargetLayerSize("64 bananas");
+    when(config.getSplitStrategy()).thenReturn(splitStrategy);
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals(
+          "invalid target layer size '64 bananas'; use a positive number of bytes, optionally "
+              + "followed by KB, MB or GB",
+          ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers() throws JibPluginExtensionException {
+    FileEntriesLayer layer =
+        FileEntriesLayer.builder()
+            .setName("dependencies")
+            .addEntry(Paths.get("platform-lib.jar"), AbsoluteUnixPath.get("/libs/platform-lib.jar"))
+            .addEntry(Paths.get("own-lib.jar"), AbsoluteUnixPath.get("/libs/own-lib.jar"))
+            .build();
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn(":platform");
+    when(config.getParentConfiguration()).thenReturn("");
+    org.gradle.api.artifacts.Configuration parentDependencies =
+        mockParentDependencies(mockResolvedArtifact("platform-lib.jar", "platform-lib"));
+    Project rootProject = mockRootProject();
+    GradleData gradleData1 = mockGradleData(rootProject, parentDependencies);
+    // the second subproject resolves nothing
+    GradleData gradleData2 = mockGradleData(rootProject);
+
+    ContainerBuildPlan newPlan1 =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData1, logger);
+    ContainerBuildPlan newPlan2 =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData2, logger);
+
+    for (ContainerBuildPlan newPlan : Arrays.asList(newPlan1, newPlan2)) {
+      assertEquals(
+          Arrays.asList("dependencies-parent", "dependencies"),
+          newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+      assertEquals(
+          Arrays.asList("/libs/platform-lib.jar"),
+          layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(0)));
+      assertEquals(
+          Arrays.asList("/libs/own-lib.jar"),
+          layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(1)));
+    }
+    // resolved once for both subprojects, through a dependency on the parent project
+    verify(parentDependencies, times(1)).getResolvedConfiguration();
+    Map<String, String> notation = new HashMap<>();
+    notation.put("path", ":platform");
+    verify(gradleData1.getProject().getDependencies()).project(notation);
+    verify(gradleData2.getProject().getConfigurations(), never()).detachedConfiguration(any());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_resolvedAgainInNextBuild()
+      throws JibPluginExtensionException {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn(":platform");
+    when(config.getParentConfiguration()).thenReturn("");
+    org.gradle.api.artifacts.Configuration parentDependencies =
+        mockParentDependencies(mockResolvedArtifact("platform-lib.jar", "platform-lib"));
+    // two consecutive builds (e.g., in the same Gradle daemon) have different root projects
+    GradleData firstBuild = mockGradleData(mockRootProject(), parentDependencies);
+    GradleData secondBuild = mockGradleData(mockRootProject(), parentDependencies);
+
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), firstBuild, logger);
+    extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), secondBuild, logger);
+
+    verify(parentDependencies, times(2)).getResolvedConfiguration();
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_ownArtifactExcluded()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer =
+        FileEntriesLayer.builder()
+            .setName("dependencies")
+            .addEntry(Paths.get("platform.jar"), AbsoluteUnixPath.get("/libs/platform.jar"))
+            .addEntry(Paths.get("platform-lib.jar"), AbsoluteUnixPath.get("/libs/platform-lib.jar"))
+            .build();
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn(":platform");
+    when(config.getParentConfiguration()).thenReturn("");
+    ResolvedArtifact ownArtifact = mock(ResolvedArtifact.class, RETURNS_DEEP_STUBS);
+    ProjectComponentIdentifier ownComponent = mock(ProjectComponentIdentifier.class);
+    when(ownComponent.getProjectPath()).thenReturn(":platform");
+    when(ownArtifact.getId().getComponentIdentifier()).thenReturn(ownComponent);
+    org.gradle.api.artifacts.Configuration parentDependencies =
+        mockParentDependencies(
+            ownArtifact, mockResolvedArtifact("platform-lib.jar", "platform-lib"));
+    GradleData gradleData = mockGradleData(mockRootProject(), parentDependencies);
+
+    ContainerBuildPlan newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData, logger);
+
+    assertEquals(
+        Arrays.asList("/libs/platform-lib.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(0)));
+    assertEquals(
+        Arrays.asList("/libs/platform.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(1)));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_potentialMatches()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer =
+        FileEntriesLayer.builder()
+            .setName("dependencies")
+            .addEntry(Paths.get("guava-29.0.jar"), AbsoluteUnixPath.get("/libs/guava-29.0.jar"))
+            .build();
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn(":platform");
+    when(config.getParentConfiguration()).thenReturn("");
+    org.gradle.api.artifacts.Configuration parentDependencies =
+        mockParentDependencies(mockResolvedArtifact("guava-28.0.jar", "guava"));
+    GradleData gradleData = mockGradleData(mockRootProject(), parentDependencies);
+
+    new JibLayerFilterExtension()
+        .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData, logger);
+
+    verify(logger).log(LogLevel.INFO, "Dependency from parent not found: guava-28.0.jar");
+    verify(logger).log(LogLevel.INFO, "Potential matches: guava-29.0.jar");
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_noParentDependencies()
+      throws JibPluginExtensionException {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn(":platform");
+    when(config.getParentConfiguration()).thenReturn("");
+    GradleData gradleData = mockGradleData(mockRootProject(), mockParentDependencies());
+
+    new JibLayerFilterExtension()
+        .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData, logger);
+
+    verify(logger).log(LogLevel.WARN, "No parent dependencies found in parent project ':platform'");
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_resolveFailure() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn(":platform");
+    when(config.getParentConfiguration()).thenReturn("runtimeElements");
+    ResolveException resolveException =
+        new ResolveException("detached configuration", new RuntimeException("boom"));
+    ResolvedConfiguration resolvedConfiguration = mock(ResolvedConfiguration.class);
+    when(resolvedConfiguration.getResolvedArtifacts()).thenThrow(resolveException);
+    org.gradle.api.artifacts.Configuration parentDependencies =
+        mock(org.gradle.api.artifacts.Configuration.class);
+    when(parentDependencies.getResolvedConfiguration()).thenReturn(resolvedConfiguration);
+    GradleData gradleData = mockGradleData(mockRootProject(), parentDependencies);
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals(
+          "cannot resolve the dependencies of configuration 'runtimeElements' of parent project "
+              + "':platform'",
+          ex.getMessage());
+      assertSame(resolveException, ex.getCause());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_configurationNotFound() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn("");
+    when(config.getParentConfiguration()).thenReturn("platformDependencies");
+    Project project = mock(Project.class, RETURNS_DEEP_STUBS);
+    Project rootProject = mockRootProject();
+    when(project.getRootProject()).thenReturn(rootProject);
+    when(project.getPath()).thenReturn(":service");
+    when(project.getConfigurations().findByName("platformDependencies")).thenReturn(null);
+    GradleData gradleData = mock(GradleData.class);
+    when(gradleData.getProject()).thenReturn(project);
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals(
+          "configuration 'platformDependencies' not found in project ':service'", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_noParentGiven() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn("");
+    when(config.getParentConfiguration()).thenReturn("");
+    GradleData gradleData = mock(GradleData.class);
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals(
+          "createParentDependencyLayers requires 'parentProject' or 'parentConfiguration'",
+          ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_parentProjectNotFound() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentProject()).thenReturn(":nonexistent");
+    GradleData gradleData = mock(GradleData.class);
+    when(gradleData.getProject()).thenReturn(mock(Project.class));
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), gradleData, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals("parent project ':nonexistent' not found", ex.getMessage());
+    }
+  }
 }
@@ -37,6 +37,14 @@ import java.util.List;
  *     </filter>
  *   </filters>
  *   <createParentDependencyLayers>true</createParentDependencyLayers>
+ *   <splitStrategy>
+ *     <layers>
+ *       <layer>dependencies</layer>
+ *     </layers>
+ *     <strategy>size</strategy>
+ *     <targetLayerSize>64MB</targetLayerSize>
+ *   </splitStrategy>
+ *   <layerHistoryFile>jib-layer-history.properties</layerHistoryFile>
  * </configuration>
  * }</pre>
  */
@@ -55,6 +63,29 @@ public class Configuration {
     }
   }
 
+  public static class SplitStrategy {
+    private List<String> layers = new ArrayList<>();
+    private String strategy = "artifact";
+    private int count = 8;
+    private String targetLayerSize = "64MB";
+
+    public List<String> getLayers() {
+      return layers;
+    }
+
+    public String getStrategy() {
+      return strategy;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public String getTargetLayerSize() {
+      return targetLayerSize;
+    }
+  }
+
   private List<Filter> filters = new ArrayList<>();
 
   /**
@@ -64,6 +95,49 @@ public class Configuration {
    */
   private boolean createParentDependencyLayers;
 
+  /**
+   * Like {@link #createParentDependencyLayers}, but with a parent layer per ancestor level: {@code
+   * <layer>-parent-1} for the parent, {@code <layer>-parent-2} for the grandparent, and so on. A
+   * dependency goes into the layer of the most distant ancestor having it, and the layers of more
+   * distant ancestors come first.
+   */
+  private boolean createAncestorDependencyLayers;
+
+  /**
+   * JSON report file (relative to the project directory) of the parent dependencies that were not
+   * found in any layer, with potentially matching files. Written only if set and parent or
+   * ancestor layers are created.
+   */
+  private String parentDependencyReportFile = "";
+
+  /**
+   * Whether to move the dependencies that all {@link #sharedDependencyModules} have in common into
+   * a first layer named {@code shared dependencies}, which is then the same in every image. This
+   * is done after the filters have been applied and before the parent layers are created.
+   */
+  private boolean createSharedDependencyLayer;
+
+  /**
+   * Modules ({@code artifactId} or {@code groupId:artifactId}) of the reactor whose common
+   * dependencies go into the shared layer. Required with {@link #createSharedDependencyLayer}, so
+   * that the shared layer does not depend on which modules a build selects (e.g., with {@code
+   * -pl}).
+   */
+  private List<String> sharedDependencyModules = new ArrayList<>();
+
+  /**
+   * How to split layers into a fixed number of sublayers so that a changed file only invalidates
+   * its own sublayer. Splitting is applied last, after the filters and parent layers. No layer is
+   * split by default.
+   */
+  private SplitStrategy splitStrategy = new SplitStrategy();
+
+  /**
+   * History file (relative to the project directory) of layer changes in previous builds. If set,
+   * layers are reordered from the least to the most frequently changing, after all other steps.
+   */
+  private String layerHistoryFile = "";
+
   public List<Filter> getFilters() {
     return filters;
   }
@@ -71,4 +145,28 @@ public class Configuration {
   public boolean isCreateParentDependencyLayers() {
     return createParentDependencyLayers;
   }
+
+  public boolean isCreateAncestorDependencyLayers() {
+    return createAncestorDependencyLayers;
+  }
+
+  public String getParentDependencyReportFile() {
+    return parentDependencyReportFile;
+  }
+
+  public boolean isCreateSharedDependencyLayer() {
+    return createSharedDependencyLayer;
+  }
+
+  public List<String> getSharedDependencyModules() {
+    return sharedDependencyModules;
+  }
+
+  public SplitStrategy getSplitStrategy() {
+    return splitStrategy;
+  }
+
+  public String getLayerHistoryFile() {
+    return layerHistoryFile;
+  }
 }
@@ -0,0 +1,508 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.layerfilter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches paths against an ordered list of glob patterns in a single pass over the path.
+ *
+ * <p>All globs are compiled once into one non-deterministic automaton, which is lazily turned into
+ * a deterministic one while matching. Matching a path therefore costs time linear in the path
+ * length, independent of the number of globs.
+ *
+ * <p>The glob syntax is that of {@link java.nio.file.FileSystem#getPathMatcher} on Unix-like file
+ * systems ({@code *}, {@code **}, {@code ?}, {@code [...]}, {@code {...}} and {@code \} escapes),
+ * always with {@code /} as the name separator. Instances are thread-safe.
+ */
+class GlobMatcher {
+
+  /** Upper bound of deterministic states to cache; beyond this, new states are not cached. */
+  private static final int MAX_CACHED_STATES = 10_000;
+
+  // Kinds of automaton states and of parsed glob elements.
+  private static final int LITERAL = 0;
+  private static final int ANY_BUT_SLASH = 1;
+  private static final int ANY = 2;
+  private static final int CHAR_CLASS = 3;
+  private static final int SPLIT = 4;
+  private static final int ACCEPT = 5;
+  private static final int STAR = 6;
+  private static final int DOUBLE_STAR = 7;
+  private static final int GROUP = 8;
+
+  /** A bracket expression such as {@code [a-z]} or {@code [!0-9]}. Never matches {@code /}. */
+  private static class CharClass {
+
+    private static final CharClass NONE = new CharClass(new char[0], false);
+
+    private final char[] ranges; // pairs of (low, high), both inclusive
+    private final boolean negated;
+
+    private CharClass(char[] ranges, boolean negated) {
+      this.ranges = ranges;
+      this.negated = negated;
+    }
+
+    private boolean matches(char c) {
+      if (c == '/') {
+        return false;
+      }
+      boolean inRanges = false;
+      for (int i = 0; i < ranges.length && !inRanges; i += 2) {
+        inRanges = c >= ranges[i] && c <= ranges[i + 1];
+      }
+      return inRanges != negated;
+    }
+  }
+
+  /** An element of a parsed glob. */
+  private static class Element {
+
+    private final int kind;
+    private final char literal;
+    private final CharClass charClass;
+    private final List<List<Element>> alternatives;
+
+    private Element(
+        int kind, char literal, CharClass charClass, List<List<Element>> alternatives) {
+      this.kind = kind;
+      this.literal = literal;
+      this.charClass = charClass;
+      this.alternatives = alternatives;
+    }
+
+    private static Element of(int kind) {
+      return new Element(kind, '\0', CharClass.NONE, Collections.emptyList());
+    }
+
+    private static Element literal(char literal) {
+      return new Element(LITERAL, literal, CharClass.NONE, Collections.emptyList());
+    }
+
+    private static Element charClass(CharClass charClass) {
+      return new Element(CHAR_CLASS, '\0', charClass, Collections.emptyList());
+    }
+
+    private static Element group(List<List<Element>> alternatives) {
+      return new Element(GROUP, '\0', CharClass.NONE, alternatives);
+    }
+  }
+
+  /** A state of the deterministic automaton, i.e., a set of non-deterministic states. */
+  private static class DfaState {
+
+    private final BitSet nfaStates;
+    private final int match;
+    private final boolean cached;
+    private final DfaState[] asciiTransitions = new DfaState[128];
+    private final Map<Character, DfaState> otherTransitions = new ConcurrentHashMap<>();
+
+    private DfaState(BitSet nfaStates, int match, boolean cached) {
+      this.nfaStates = nfaStates;
+      this.match = match;
+      this.cached = cached;
+    }
+  }
+
+  /**
+   * Compiles globs into a matcher.
+   *
+   * @param globs glob patterns, in order
+   * @return the matcher
+   * @throws PatternSyntaxException if a glob is invalid
+   */
+  static GlobMatcher compile(List<String> globs) {
+    return new GlobMatcher(globs);
+  }
+
+  // The non-deterministic automaton: parallel lists indexed by state ID.
+  private final List<Integer> kinds = new ArrayList<>();
+  private final StringBuilder literals = new StringBuilder();
+  private final List<CharClass> charClasses = new ArrayList<>();
+  // successor state ID for consuming states; glob index for accepting states
+  private final List<Integer> successors = new ArrayList<>();
+  private final List<int[]> splitTargets = new ArrayList<>();
+
+  // epsilon closures of the successor of each consuming state
+  private final int[][] successorClosures;
+  private final Map<BitSet, DfaState> dfaStates = new ConcurrentHashMap<>();
+  private final DfaState initialState;
+
+  // literal part of each glob before its first special character
+  private final List<String> literalPrefixes = new ArrayList<>();
+
+  private GlobMatcher(List<String> globs) {
+    int[] starts = new int[globs.size()];
+    for (int i = 0; i < globs.size(); i++) {
+      literalPrefixes.add(getLiteralPrefix(globs.get(i)));
+      int accept = addState(ACCEPT, '\0', CharClass.NONE, i);
+      starts[i] = compileSequence(parse(globs.get(i)), accept);
+    }
+    int start = addSplit();
+    splitTargets.set(start, starts);
+
+    successorClosures = new int[kinds.size()][];
+    for (int id = 0; id < kinds.size(); id++) {
+      int kind = kinds.get(id);
+      if (kind != SPLIT && kind != ACCEPT) {
+        successorClosures[id] = closure(successors.get(id)).stream().toArray();
+      }
+    }
+    initialState = intern(closure(start));
+  }
+
+  /**
+   * Finds the last glob (in the order given at compile time) that matches {@code path}. As {@link
+   * java.nio.file.Paths#get} does for the JDK matcher, redundant and trailing {@code /} are
+   * ignored, while {@code .} and {@code ..} segments are matched as they are.
+   *
+   * @param path the path to match
+   * @return the index of the last matching glob, or {@code -1} if no glob matches
+   */
+  int lastMatchIndex(CharSequence path) {
+    int end = path.length();
+    while (end > 1 && path.charAt(end - 1) == '/') {
+      end--;
+    }
+    DfaState state = initialState;
+    for (int i = 0; i < end; i++) {
+      char c = path.charAt(i);
+      if (c == '/' && i > 0 && path.charAt(i - 1) == '/') {
+        continue;
+      }
+      if (state.nfaStates.isEmpty()) {
+        return -1; // dead state; nothing can match from here on
+      }
+      state = step(state, c);
+    }
+    return state.match;
+  }
+
+  /**
+   * Checks whether any glob may match a path starting with {@code pathPrefix}. A glob can only
+   * match paths that start with its literal prefix (the part before its first special character),
+   * so no glob matches if {@code pathPrefix} and the literal prefix of every glob diverge.
+   *
+   * @param pathPrefix common prefix of the paths in question
+   * @return {@code false} if no glob can match any path starting with {@code pathPrefix}
+   */
+  boolean mayMatchPathsStartingWith(String pathPrefix) {
+    for (String literalPrefix : literalPrefixes) {
+      if (pathPrefix.startsWith(literalPrefix) || literalPrefix.startsWith(pathPrefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String getLiteralPrefix(String glob) {
+    for (int i = 0; i < glob.length(); i++) {
+      if ("*?[{\\".indexOf(glob.charAt(i)) >= 0) {
+        return glob.substring(0, i);
+      }
+    }
+    return glob;
+  }
+
+  private DfaState step(DfaState from, char c) {
+    DfaState cachedState = c < 128 ? from.asciiTransitions[c] : from.otherTransitions.get(c);
+    if (cachedState != null) {
+      return cachedState;
+    }
+
+    BitSet targets = new BitSet(kinds.size());
+    BitSet sources = from.nfaStates;
+    for (int id = sources.nextSetBit(0); id >= 0; id = sources.nextSetBit(id + 1)) {
+      if (consumes(id, c)) {
+        for (int target : successorClosures[id]) {
+          targets.set(target);
+        }
+      }
+    }
+
+    DfaState to = intern(targets);
+    if (to.cached) {
+      if (c < 128) {
+        from.asciiTransitions[c] = to;
+      } else {
+        from.otherTransitions.put(c, to);
+      }
+    }
+    return to;
+  }
+
+  private boolean consumes(int id, char c) {
+    switch (kinds.get(id)) {
+      case LITERAL:
+        return literals.charAt(id) == c;
+      case ANY_BUT_SLASH:
+        return c != '/';
+      case ANY:
+        return true;
+      case CHAR_CLASS:
+        return charClasses.get(id).matches(c);
+      default:
+        return false;
+    }
+  }
+
+  private DfaState intern(BitSet nfaStates) {
+    DfaState existing = dfaStates.get(nfaStates);
+    if (existing != null) {
+      return existing;
+    }
+
+    int match = -1;
+    for (int id = nfaStates.nextSetBit(0); id >= 0; id = nfaStates.nextSetBit(id + 1)) {
+      if (kinds.get(id) == ACCEPT) {
+        match = Math.max(match, successors.get(id));
+      }
+    }
+    if (dfaStates.size() >= MAX_CACHED_STATES) {
+      return new DfaState(nfaStates, match, false);
+    }
+    DfaState created = new DfaState(nfaStates, match, true);
+    existing = dfaStates.putIfAbsent(nfaStates, created);
+    return existing != null ? existing : created;
+  }
+
+  /** Returns the non-split states reachable from {@code id} through split states only. */
+  private BitSet closure(int id) {
+    BitSet closure = new BitSet(kinds.size());
+    BitSet visited = new BitSet(kinds.size());
+    List<Integer> stack = new ArrayList<>();
+    stack.add(id);
+    while (!stack.isEmpty()) {
+      int current = stack.remove(stack.size() - 1);
+      if (visited.get(current)) {
+        continue;
+      }
+      visited.set(current);
+      if (kinds.get(current) == SPLIT) {
+        for (int target : splitTargets.get(current)) {
+          stack.add(target);
+        }
+      } else {
+        closure.set(current);
+      }
+    }
+    return closure;
+  }
+
+  private int addState(int kind, char literal, CharClass charClass, int successor) {
+    kinds.add(kind);
+    literals.append(literal);
+    charClasses.add(charClass);
+    successors.add(successor);
+    splitTargets.add(new int[0]);
+    return kinds.size() - 1;
+  }
+
+  private int addSplit() {
+    return addState(SPLIT, '\0', CharClass.NONE, -1);
+  }
+
+  private int compileSequence(List<Element> sequence, int next) {
+    int state = next;
+    for (int i = sequence.size() - 1; i >= 0; i--) {
+      state = compileElement(sequence.get(i), state);
+    }
+    return state;
+  }
+
+  private int compileElement(Element element, int next) {
+    switch (element.kind) {
+      case LITERAL:
+      case ANY_BUT_SLASH:
+      case CHAR_CLASS:
+        return addState(element.kind, element.literal, element.charClass, next);
+
+      case STAR:
+      case DOUBLE_STAR:
+        int loop = addSplit();
+        int step =
+            addState(element.kind == STAR ? ANY_BUT_SLASH : ANY, '\0', CharClass.NONE, loop);
+        splitTargets.set(loop, new int[] {step, next});
+        return loop;
+
+      case GROUP:
+        int[] alternatives = new int[element.alternatives.size()];
+        for (int i = 0; i < alternatives.length; i++) {
+          alternatives[i] = compileSequence(element.alternatives.get(i), next);
+        }
+        int split = addSplit();
+        splitTargets.set(split, alternatives);
+        return split;
+
+      default:
+        throw new IllegalStateException("unknown glob element: " + element.kind);
+    }
+  }
+
+  private static List<Element> parse(String glob) {
+    List<Element> sequence = new ArrayList<>();
+    List<Element> current = sequence;
+    List<List<Element>> alternatives = new ArrayList<>();
+    boolean inGroup = false;
+
+    int i = 0;
+    while (i < glob.length()) {
+      char c = glob.charAt(i++);
+      switch (c) {
+        case '\\':
+          if (i == glob.length()) {
+            throw new PatternSyntaxException("No character to escape", glob, i - 1);
+          }
+          current.add(Element.literal(glob.charAt(i++)));
+          break;
+
+        case '*':
+          if (i < glob.length() && glob.charAt(i) == '*') {
+            current.add(Element.of(DOUBLE_STAR)); // crosses directory boundaries
+            i++;
+          } else {
+            current.add(Element.of(STAR)); // within directory boundary
+          }
+          break;
+
+        case '?':
+          current.add(Element.of(ANY_BUT_SLASH));
+          break;
+
+        case '[':
+          i = parseCharClass(glob, i, current);
+          break;
+
+        case '{':
+          if (inGroup) {
+            throw new PatternSyntaxException("Cannot nest groups", glob, i - 1);
+          }
+          inGroup = true;
+          alternatives = new ArrayList<>();
+          current = new ArrayList<>();
+          alternatives.add(current);
+          break;
+
+        case '}':
+          if (inGroup) {
+            inGroup = false;
+            sequence.add(Element.group(alternatives));
+            current = sequence;
+          } else {
+            current.add(Element.literal(c));
+          }
+          break;
+
+        case ',':
+          if (inGroup) {
+            current = new ArrayList<>();
+            alternatives.add(current);
+          } else {
+            current.add(Element.literal(c));
+          }
+          break;
+
+        default:
+          current.add(Element.literal(c));
+      }
+    }
+
+    if (inGroup) {
+      throw new PatternSyntaxException("Missing '}'", glob, i - 1);
+    }
+    return sequence;
+  }
+
+  /**
+   * Parses a bracket expression the same way as the JDK glob implementation does.
+   *
+   * @param glob the glob
+   * @param start position right after the opening {@code [}
+   * @param current sequence to which the parsed expression is added
+   * @return position right after the closing {@code ]}
+   */
+  private static int parseCharClass(String glob, int start, List<Element> current) {
+    StringBuilder ranges = new StringBuilder();
+    boolean negated = false;
+
+    int i = start;
+    if (i < glob.length() && glob.charAt(i) == '^') {
+      ranges.append("^^"); // not a negation in globs
+      i++;
+    } else {
+      if (i < glob.length() && glob.charAt(i) == '!') {
+        negated = true;
+        i++;
+      }
+      if (i < glob.length() && glob.charAt(i) == '-') {
+        ranges.append("--"); // hyphen allowed at start
+        i++;
+      }
+    }
+
+    boolean closed = false;
+    boolean hasRangeStart = false;
+    char last = 0;
+    while (i < glob.length()) {
+      char c = glob.charAt(i++);
+      if (c == ']') {
+        closed = true;
+        break;
+      }
+      if (c == '/') {
+        throw new PatternSyntaxException("Explicit 'name separator' in class", glob, i - 1);
+      }
+
+      if (c == '-') {
+        if (!hasRangeStart) {
+          throw new PatternSyntaxException("Invalid range", glob, i - 1);
+        }
+        if (i == glob.length()) {
+          break;
+        }
+        char end = glob.charAt(i++);
+        if (end == ']') {
+          ranges.append("--"); // trailing hyphen is a literal
+          closed = true;
+          break;
+        }
+        if (end < last) {
+          throw new PatternSyntaxException("Invalid range", glob, i - 3);
+        }
+        ranges.setCharAt(ranges.length() - 1, end);
+        hasRangeStart = false;
+      } else {
+        ranges.append(c).append(c);
+        hasRangeStart = true;
+        last = c;
+      }
+    }
+
+    if (!closed) {
+      throw new PatternSyntaxException("Missing ']'", glob, i - 1);
+    }
+    current.add(Element.charClass(new CharClass(ranges.toString().toCharArray(), negated)));
+    return i;
+  }
+}
@@ -27,39 +27,92 @@ import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Verify;
-import java.nio.file.FileSystems;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.DefaultDependencyResolutionRequest;
 import org.apache.maven.project.DependencyResolutionException;
 import org.apache.maven.project.DependencyResolutionResult;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectDependenciesResolver;
+import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.util.filter.AndDependencyFilter;
 import org.eclipse.aether.util.filter.ScopeDependencyFilter;
 
 @Named
 @Singleton
 public class JibLayerFilterExtension implements JibMavenPluginExtension<Configuration> {
 
-  private Map<PathMatcher, String> pathMatchers = new LinkedHashMap<>();
+  // The extension is a singleton that may outlive a build (e.g., in a Maven daemon).
+  private static final int MAX_CACHED_FILTER_MATCHERS = 100;
+
+  private static final String SHARED_DEPENDENCY_LAYER_NAME = "shared dependencies";
+
+  /**
+   * The filters of one module build. The extension is a singleton that builds modules concurrently
+   * with {@code mvn -T}, so this state is passed along instead of kept in fields.
+   */
+  private static class Filters {
+
+    // compiled globs of all filters and the <toLayer> of each filter (in the configuration order)
+    private final GlobMatcher matcher;
+    private final List<String> toLayers;
+    // (layer name, layer builder) map for new layers of configured <toLayer>
+    private final Map<String, FileEntriesLayer.Builder> newToLayers;
+
+    private Filters(
+        GlobMatcher matcher,
+        List<String> toLayers,
+        Map<String, FileEntriesLayer.Builder> newToLayers) {
+      this.matcher = matcher;
+      this.toLayers = toLayers;
+      this.newToLayers = newToLayers;
+    }
+  }
+
+  // (globs of all filters in the configuration order, compiled globs) cache to reuse compiled globs
+  // across modules with the same filters. Least recently used entries go first.
+  @VisibleForTesting
+  final Cache<List<String>, GlobMatcher> compiledFilterMatchers =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_FILTER_MATCHERS).build();
 
   @VisibleForTesting @Inject ProjectDependenciesResolver dependencyResolver;
 
-  // (layer name, layer builder) map for new layers of configured <toLayer>
-  @VisibleForTesting Map<String, FileEntriesLayer.Builder> newToLayers = new LinkedHashMap<>();
+  // (repository session, (project GAV, resolved dependencies)) map to resolve each parent,
+  // ancestor, or module only once per Maven session, however many modules need it. Weak keys let
+  // the entries of a finished session go (e.g., in a Maven daemon).
+  @VisibleForTesting
+  final Map<RepositorySystemSession, Map<String, List<Dependency>>> dependencyCache =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  // (Maven session, (configured shared dependency modules, dependency files shared by them)) map
+  // to compute the shared dependencies only once per Maven session
+  @VisibleForTesting
+  final Map<MavenSession, Map<List<String>, Set<Path>>> sharedDependencyCache =
+      Collections.synchronizedMap(new WeakHashMap<>());
 
   @Override
   public Optional<Class<Configuration>> getExtraConfigType() {
@@ -80,114 +133,257 @@ public class JibLayerFilterExtension implements JibMavenPluginExtension<Configur
       return buildPlan;
     }
 
-    preparePathMatchersAndLayerBuilders(buildPlan, config.get());
+    Filters filters = prepareFilterMatcherAndLayerBuilders(buildPlan, config.get());
 
-    ContainerBuildPlan.Builder newPlanBuilder = buildPlan.toBuilder();
-    newPlanBuilder.setLayers(Collections.emptyList());
+    List<FileEntriesLayer> newLayers = new ArrayList<>();
 
     @SuppressWarnings("unchecked")
     List<FileEntriesLayer> originalLayers = (List<FileEntriesLayer>) buildPlan.getLayers();
-    // Start filtering original layers.
+    // Start filtering original layers. A layer whose files all stay is kept as it is.
     for (FileEntriesLayer layer : originalLayers) {
-      List<FileEntry> filesToKeep = new ArrayList<>();
-
-      for (FileEntry entry : layer.getEntries()) {
-        Optional<String> finalLayerName = determineFinalLayerName(entry, layer.getName());
-        // Either keep, move, or delete this FileEntry.
-        if (finalLayerName.isPresent()) {
-          if (finalLayerName.get().equals(layer.getName())) {
-            filesToKeep.add(entry);
-          } else {
-            FileEntriesLayer.Builder targetLayerBuilder =
-                Verify.verifyNotNull(newToLayers.get(finalLayerName.get()));
-            targetLayerBuilder.addEntry(entry);
-          }
-        }
+      FileEntriesLayer filteredLayer = layer;
+      if (filters.matcher.mayMatchPathsStartingWith(LayerTransforms.getCommonPathPrefix(layer))) {
+        filteredLayer =
+            LayerTransforms.filterEntries(
+                layer, entry -> keepOrMove(entry, layer.getName(), filters));
+      } else {
+        logger.log(LogLevel.DEBUG, "Skipping layer '" + layer.getName() + "': no filter can match");
       }
-
-      if (!filesToKeep.isEmpty()) {
-        newPlanBuilder.addLayer(layer.toBuilder().setEntries(filesToKeep).build());
+      if (!filteredLayer.getEntries().isEmpty()) {
+        newLayers.add(filteredLayer);
       }
     }
 
     // Add newly created non-empty to-layers (if any).
-    newToLayers.values().stream()
+    filters.newToLayers.values().stream()
         .map(FileEntriesLayer.Builder::build)
         .filter(layer -> !layer.getEntries().isEmpty())
-        .forEach(newPlanBuilder::addLayer);
+        .forEach(newLayers::add);
 
-    ContainerBuildPlan newPlan = newPlanBuilder.build();
+    ContainerBuildPlan newPlan = LayerTransforms.setLayers(buildPlan, newLayers);
 
-    return config.get().isCreateParentDependencyLayers()
-        ? moveParentDepsToNewLayers(newPlan, mavenData, logger)
-        : newPlan;
+    if (config.get().isCreateSharedDependencyLayer()) {
+      newPlan = moveSharedDepsToNewLayer(newPlan, mavenData, config.get(), logger);
+    }
+    if (config.get().isCreateParentDependencyLayers()
+        || config.get().isCreateAncestorDependencyLayers()) {
+      newPlan = moveParentDepsToNewLayers(newPlan, mavenData, config.get(), logger);
+    }
+    newPlan = splitLayers(newPlan, config.get().getSplitStrategy(), logger);
+
+    String layerHistoryFile = config.get().getLayerHistoryFile();
+    if (!layerHistoryFile.isEmpty()) {
+      logger.log(LogLevel.INFO, "Ordering layers by change frequency.");
+      Path buildDirectory = Paths.get(mavenData.getMavenProject().getBuild().getDirectory());
+      Path historyFile = buildDirectory.resolve(layerHistoryFile);
+      try {
+        newPlan = LayerChangeHistory.orderByChangeFrequency(newPlan, historyFile, logger);
+      } catch (IOException ex) {
+        throw new JibPluginExtensionException(
+            getClass(), "Error when ordering layers by change frequency", ex);
+      }
+    }
+    return newPlan;
   }
 
-  private ContainerBuildPlan moveParentDepsToNewLayers(
-      ContainerBuildPlan buildPlan, MavenData mavenData, ExtensionLogger logger)
+  private ContainerBuildPlan splitLayers(
+      ContainerBuildPlan buildPlan,
+      Configuration.SplitStrategy splitStrategy,
+      ExtensionLogger logger)
       throws JibPluginExtensionException {
-    logger.log(LogLevel.INFO, "Moving parent dependencies to new layers.");
+    if (splitStrategy.getLayers().isEmpty()) {
+      return buildPlan;
+    }
+    Optional<LayerSplitter.Strategy> strategy =
+        LayerSplitter.Strategy.fromName(splitStrategy.getStrategy());
+    if (!strategy.isPresent()) {
+      throw new JibPluginExtensionException(
+          getClass(),
+          "unknown split strategy '"
+              + splitStrategy.getStrategy()
+              + "'; use 'artifact', 'path-hash' or 'size'");
+    }
+    if (splitStrategy.getCount() < 1) {
+      throw new JibPluginExtensionException(
+          getClass(),
+          "split count must be a positive integer, but got " + splitStrategy.getCount());
+    }
+    long targetSize = 0;
+    if (strategy.get() == LayerSplitter.Strategy.SIZE) {
+      try {
+        targetSize = LayerSplitter.parseSize(splitStrategy.getTargetLayerSize());
+      } catch (IllegalArgumentException ex) {
+        throw new JibPluginExtensionException(
+            getClass(),
+            "invalid target layer size '"
+                + splitStrategy.getTargetLayerSize()
+                + "'; use a positive number of bytes, optionally followed by KB, MB or GB",
+            ex);
+      }
+    }
 
-    // The key is the source file path for the parent dependency. We only consider artifacts that
-    // have been resolved.
-    Map<Path, Artifact> parentDependencies =
-        getParentDependencies(mavenData).stream()
-            .map(Dependency::getArtifact)
-            .filter(artifact -> artifact.getFile() != null)
-            .collect(
-                Collectors.toMap(artifact -> artifact.getFile().toPath(), artifact -> artifact));
+    logger.log(LogLevel.INFO, "Splitting layers " + splitStrategy.getLayers() + ".");
+    try {
+      return new LayerSplitter(
+              splitStrategy.getLayers(), strategy.get(), splitStrategy.getCount(), targetSize)
+          .split(buildPlan);
+    } catch (IOException ex) {
+      throw new JibPluginExtensionException(getClass(), "Error when reading file sizes", ex);
+    }
+  }
 
+  private ContainerBuildPlan moveParentDepsToNewLayers(
+      ContainerBuildPlan buildPlan,
+      MavenData mavenData,
+      Configuration config,
+      ExtensionLogger logger)
+      throws JibPluginExtensionException {
+    boolean allAncestors = config.isCreateAncestorDependencyLayers();
+    logger.log(
+        LogLevel.INFO,
+        allAncestors
+            ? "Moving ancestor dependencies to new layers."
+            : "Moving parent dependencies to new layers.");
+
+    List<MavenProject> ancestors = getAncestors(mavenData, allAncestors);
+
+    // The key is the source file path for the ancestor dependency, and the value is the level of
+    // the most distant ancestor having it (1 for the parent). We only consider artifacts that have
+    // been resolved.
+    Map<Path, Integer> parentDependencyLevels = new HashMap<>();
     // Parent dependencies that have not been found in any layer (due to different version or
     // filtering). Only needed for logging.
-    Map<Path, Artifact> parentDependenciesNotFound = new HashMap<>(parentDependencies);
+    Map<Path, Artifact> parentDependenciesNotFound = new HashMap<>();
+    for (int level = 1; level <= ancestors.size(); level++) {
+      for (Dependency dependency : getDependencies(ancestors.get(level - 1), mavenData)) {
+        Artifact artifact = dependency.getArtifact();
+        if (artifact.getFile() != null) {
+          Path sourceFilePath = artifact.getFile().toPath();
+          parentDependencyLevels.put(sourceFilePath, level);
+          parentDependenciesNotFound.put(sourceFilePath, artifact);
+        }
+      }
+    }
 
-    List<FileEntriesLayer.Builder> newLayerBuilders = new ArrayList<>();
+    List<FileEntriesLayer> newLayers = new ArrayList<>();
 
     @SuppressWarnings("unchecked")
     List<FileEntriesLayer> originalLayers = ((List<FileEntriesLayer>) buildPlan.getLayers());
     for (FileEntriesLayer originalLayer : originalLayers) {
-      String parentLayerName = originalLayer.getName() + "-parent";
-      FileEntriesLayer.Builder parentLayerBuilder =
-          FileEntriesLayer.builder().setName(parentLayerName);
-      FileEntriesLayer.Builder layerBuilder =
-          originalLayer.toBuilder().setEntries(Collections.emptyList());
-
-      newLayerBuilders.add(parentLayerBuilder);
-      newLayerBuilders.add(layerBuilder);
-
-      for (FileEntry entry : originalLayer.getEntries()) {
-        Path sourceFilePath = entry.getSourceFile();
-        if (parentDependencies.containsKey(sourceFilePath)) {
-          // move to parent layer
-          logger.log(LogLevel.DEBUG, "Moving " + sourceFilePath + " to " + parentLayerName + ".");
-          parentLayerBuilder.addEntry(entry);
-          // mark parent dep as found
-          parentDependenciesNotFound.remove(sourceFilePath);
-        } else {
-          // keep in original layer
-          logger.log(
-              LogLevel.DEBUG, "Keeping " + sourceFilePath + " in " + originalLayer.getName() + ".");
-          layerBuilder.addEntry(entry);
+      // The shared dependency layer is already common to several modules; splitting it would only
+      // create a "shared dependencies-parent" layer.
+      if (config.isCreateSharedDependencyLayer()
+          && originalLayer.getName().equals(SHARED_DEPENDENCY_LAYER_NAME)) {
+        for (FileEntry entry : originalLayer.getEntries()) {
+          parentDependenciesNotFound.remove(entry.getSourceFile());
+        }
+        newLayers.add(originalLayer);
+        continue;
+      }
+
+      // parent layer builders by level - 1
+      List<FileEntriesLayer.Builder> parentLayerBuilders = new ArrayList<>();
+      List<String> parentLayerNames = new ArrayList<>();
+      for (int level = 1; level <= ancestors.size(); level++) {
+        String parentLayerName =
+            originalLayer.getName() + (allAncestors ? "-parent-" + level : "-parent");
+        parentLayerNames.add(parentLayerName);
+        parentLayerBuilders.add(FileEntriesLayer.builder().setName(parentLayerName));
+      }
+
+      FileEntriesLayer layer =
+          LayerTransforms.filterEntries(
+              originalLayer,
+              entry -> {
+                Path sourceFilePath = entry.getSourceFile();
+                Integer level = parentDependencyLevels.get(sourceFilePath);
+                if (level != null) {
+                  // move to parent layer
+                  logger.log(
+                      LogLevel.DEBUG,
+                      "Moving " + sourceFilePath + " to " + parentLayerNames.get(level - 1) + ".");
+                  parentLayerBuilders.get(level - 1).addEntry(entry);
+                  // mark parent dep as found
+                  parentDependenciesNotFound.remove(sourceFilePath);
+                  return false;
+                }
+                // keep in original layer
+                logger.log(
+                    LogLevel.DEBUG,
+                    "Keeping " + sourceFilePath + " in " + originalLayer.getName() + ".");
+                return true;
+              });
+
+      // The most distant ancestor comes first, as its dependencies are the most widely shared.
+      for (int level = ancestors.size(); level >= 1; level--) {
+        FileEntriesLayer parentLayer = parentLayerBuilders.get(level - 1).build();
+        if (!parentLayer.getEntries().isEmpty()) {
+          newLayers.add(parentLayer);
         }
       }
+      if (!layer.getEntries().isEmpty()) {
+        newLayers.add(layer);
+      }
     }
 
-    logMissingParentDependencies(logger, parentDependenciesNotFound, originalLayers);
+    ParentDependencyReport report =
+        logMissingParentDependencies(
+            logger, parentDependencyLevels.size(), parentDependenciesNotFound, originalLayers);
+    String reportFile = config.getParentDependencyReportFile();
+    if (!reportFile.isEmpty()) {
+      Path reportPath = mavenData.getMavenProject().getBasedir().toPath().resolve(reportFile);
+      try {
+        report.writeTo(reportPath);
+      } catch (IOException ex) {
+        throw new JibPluginExtensionException(
+            getClass(), "Error when writing parent dependency report", ex);
+      }
+    }
 
-    List<FileEntriesLayer> newLayers =
-        newLayerBuilders.stream()
-            .map(FileEntriesLayer.Builder::build)
-            .filter(layer -> !layer.getEntries().isEmpty())
-            .collect(Collectors.toList());
-    return buildPlan.toBuilder().setLayers(newLayers).build();
+    return LayerTransforms.setLayers(buildPlan, newLayers);
   }
 
-  private List<Dependency> getParentDependencies(MavenData mavenData)
+  /**
+   * Gets the parent and, if {@code allAncestors}, the further ancestors of the project.
+   *
+   * @param mavenData Maven data of the project
+   * @param allAncestors whether to get all ancestors rather than only the parent
+   * @return the ancestors, by their distance from the project (parent first)
+   * @throws JibPluginExtensionException if the project has no parent
+   */
+  private List<MavenProject> getAncestors(MavenData mavenData, boolean allAncestors)
       throws JibPluginExtensionException {
-    if (mavenData.getMavenProject().getParent() == null) {
+    MavenProject parent = mavenData.getMavenProject().getParent();
+    if (parent == null) {
       throw new JibPluginExtensionException(
           getClass(), "Try to get parent dependencies, but project has no parent.");
     }
+
+    List<MavenProject> ancestors = new ArrayList<>();
+    ancestors.add(parent);
+    if (allAncestors) {
+      for (MavenProject ancestor = parent.getParent();
+          ancestor != null;
+          ancestor = ancestor.getParent()) {
+        ancestors.add(ancestor);
+      }
+    }
+    return ancestors;
+  }
+
+  private List<Dependency> getDependencies(MavenProject project, MavenData mavenData)
+      throws JibPluginExtensionException {
+    return getDependencies(project, mavenData, Collections.emptySet());
+  }
+
+  /**
+   * Resolves the dependencies of a project, leaving out those on {@code excludedModules} ({@code
+   * groupId:artifactId} of reactor modules). The excluded modules are not resolved at all, so they
+   * need not have been built yet.
+   */
+  private List<Dependency> getDependencies(
+      MavenProject project, MavenData mavenData, Set<String> excludedModules)
+      throws JibPluginExtensionException {
     if (dependencyResolver == null) {
       throw new JibPluginExtensionException(
           getClass(),
@@ -195,51 +391,233 @@ public class JibLayerFilterExtension implements JibMavenPluginExtension<Configur
               + "more recent Jib plugin version to fix this.");
     }
 
+    RepositorySystemSession repositorySession = mavenData.getMavenSession().getRepositorySession();
+    String gav = project.getGroupId() + ":" + project.getArtifactId() + ":" + project.getVersion();
+    String cacheKey = excludedModules.isEmpty() ? gav : gav + " without reactor modules";
+    Map<String, List<Dependency>> resolvedProjects =
+        dependencyCache.computeIfAbsent(repositorySession, session -> new ConcurrentHashMap<>());
+    List<Dependency> cachedDependencies = resolvedProjects.get(cacheKey);
+    if (cachedDependencies != null) {
+      return cachedDependencies;
+    }
+
     try {
       DefaultDependencyResolutionRequest request =
-          new DefaultDependencyResolutionRequest(
-              mavenData.getMavenProject().getParent(),
-              mavenData.getMavenSession().getRepositorySession());
-      request.setResolutionFilter(new ScopeDependencyFilter("test"));
+          new DefaultDependencyResolutionRequest(project, repositorySession);
+      DependencyFilter filter = new ScopeDependencyFilter("test");
+      if (!excludedModules.isEmpty()) {
+        filter =
+            new AndDependencyFilter(
+                filter,
+                (node, parents) ->
+                    node.getArtifact() == null
+                        || !excludedModules.contains(
+                            node.getArtifact().getGroupId()
+                                + ":"
+                                + node.getArtifact().getArtifactId()));
+      }
+      request.setResolutionFilter(filter);
       DependencyResolutionResult resolutionResult = dependencyResolver.resolve(request);
 
-      return resolutionResult.getDependencies();
+      List<Dependency> dependencies = resolutionResult.getDependencies();
+      resolvedProjects.put(cacheKey, dependencies);
+      return dependencies;
     } catch (DependencyResolutionException ex) {
       throw new JibPluginExtensionException(
-          getClass(), "Error when getting parent dependencies", ex);
+          getClass(), "Error when resolving dependencies of " + gav, ex);
     }
   }
 
-  private void logMissingParentDependencies(
+  /**
+   * Gets the dependencies (as resolved files) that all configured shared dependency modules have in
+   * common. Computed once per session and reused by each module.
+   *
+   * <p>The modules are looked up among all modules of the reactor, including those not selected for
+   * the build (e.g., with {@code -pl}), so the shared dependencies are the same in every build.
+   * Dependencies on reactor modules are left out. A module whose dependencies cannot be resolved
+   * is skipped with a warning.
+   *
+   * @param mavenData Maven data of the project
+   * @param config the extension configuration
+   * @param logger the extension logger
+   * @return the shared dependency files; empty if fewer than two modules could be resolved
+   * @throws JibPluginExtensionException if no or unknown shared dependency modules are configured
+   */
+  private Set<Path> getSharedDependencies(
+      MavenData mavenData, Configuration config, ExtensionLogger logger)
+      throws JibPluginExtensionException {
+    if (dependencyResolver == null) {
+      throw new JibPluginExtensionException(
+          getClass(),
+          "Try to compute shared dependencies, but ProjectDependenciesResolver is null. Please use "
+              + "a more recent Jib plugin version to fix this.");
+    }
+    List<String> moduleNames = config.getSharedDependencyModules();
+    if (moduleNames.isEmpty()) {
+      throw new JibPluginExtensionException(
+          getClass(), "createSharedDependencyLayer requires 'sharedDependencyModules'");
+    }
+
+    MavenSession session = mavenData.getMavenSession();
+    Map<List<String>, Set<Path>> sessionSharedDependencies =
+        sharedDependencyCache.computeIfAbsent(session, key -> new ConcurrentHashMap<>());
+    Set<Path> cachedSharedDependencies = sessionSharedDependencies.get(moduleNames);
+    if (cachedSharedDependencies != null) {
+      return cachedSharedDependencies;
+    }
+
+    List<MavenProject> reactorProjects =
+        session.getAllProjects() != null ? session.getAllProjects() : session.getProjects();
+    Set<String> reactorModules =
+        reactorProjects.stream()
+            .map(project -> project.getGroupId() + ":" + project.getArtifactId())
+            .collect(Collectors.toSet());
+
+    Set<Path> sharedDependencies = new HashSet<>();
+    List<String> resolvedModules = new ArrayList<>();
+    for (String moduleName : moduleNames) {
+      MavenProject module = findModule(reactorProjects, moduleName);
+      Set<Path> dependencyFiles = new HashSet<>();
+      try {
+        for (Dependency dependency : getDependencies(module, mavenData, reactorModules)) {
+          if (dependency.getArtifact().getFile() != null) {
+            dependencyFiles.add(dependency.getArtifact().getFile().toPath());
+          }
+        }
+      } catch (JibPluginExtensionException ex) {
+        logger.log(
+            LogLevel.WARN,
+            "Skipping module '"
+                + moduleName
+                + "' for the shared dependency layer: "
+                + ex.getMessage());
+        continue;
+      }
+      if (resolvedModules.isEmpty()) {
+        sharedDependencies.addAll(dependencyFiles);
+      } else {
+        sharedDependencies.retainAll(dependencyFiles);
+      }
+      resolvedModules.add(moduleName);
+    }
+    if (resolvedModules.size() < 2) {
+      sharedDependencies.clear();
+    }
+    logger.log(
+        LogLevel.INFO,
+        "Shared dependencies of modules "
+            + resolvedModules
+            + ": "
+            + sharedDependencies.size()
+            + " files");
+
+    // Resolved without holding a lock, so that modules with different shared dependency modules
+    // do not wait for each other. Resolving the same modules twice in concurrent builds is
+    // harmless, as the dependencies of each module are cached as well.
+    sessionSharedDependencies.put(moduleNames, sharedDependencies);
+    return sharedDependencies;
+  }
+
+  private MavenProject findModule(List<MavenProject> reactorProjects, String moduleName)
+      throws JibPluginExtensionException {
+    for (MavenProject project : reactorProjects) {
+      String artifactId = project.getArtifactId();
+      if (moduleName.equals(artifactId)
+          || moduleName.equals(project.getGroupId() + ":" + artifactId)) {
+        return project;
+      }
+    }
+    throw new JibPluginExtensionException(
+        getClass(), "shared dependency module '" + moduleName + "' not found in the reactor");
+  }
+
+  private ContainerBuildPlan moveSharedDepsToNewLayer(
+      ContainerBuildPlan buildPlan,
+      MavenData mavenData,
+      Configuration config,
+      ExtensionLogger logger)
+      throws JibPluginExtensionException {
+    logger.log(LogLevel.INFO, "Moving shared dependencies to a new layer.");
+    Set<Path> sharedDependencies = getSharedDependencies(mavenData, config, logger);
+    if (sharedDependencies.isEmpty()) {
+      logger.log(LogLevel.INFO, "No dependencies shared among the shared dependency modules.");
+      return buildPlan;
+    }
+
+    List<FileEntry> sharedEntries = new ArrayList<>();
+    List<FileEntriesLayer> newLayers = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    List<FileEntriesLayer> originalLayers = ((List<FileEntriesLayer>) buildPlan.getLayers());
+    for (FileEntriesLayer originalLayer : originalLayers) {
+      FileEntriesLayer layer =
+          LayerTransforms.filterEntries(
+              originalLayer,
+              entry -> {
+                if (sharedDependencies.contains(entry.getSourceFile())) {
+                  sharedEntries.add(entry);
+                  return false;
+                }
+                return true;
+              });
+      if (!layer.getEntries().isEmpty()) {
+        newLayers.add(layer);
+      }
+    }
+    if (sharedEntries.isEmpty()) {
+      return buildPlan;
+    }
+
+    // Sorted, so that the layer is the same (and has the same digest) in every image.
+    sharedEntries.sort(Comparator.comparing(entry -> entry.getExtractionPath().toString()));
+    newLayers.add(
+        0,
+        FileEntriesLayer.builder()
+            .setName(SHARED_DEPENDENCY_LAYER_NAME)
+            .setEntries(sharedEntries)
+            .build());
+    return LayerTransforms.setLayers(buildPlan, newLayers);
+  }
+
+  private ParentDependencyReport logMissingParentDependencies(
       ExtensionLogger logger,
+      int parentDependencyCount,
       Map<Path, Artifact> parentDependenciesNotFound,
       List<FileEntriesLayer> originalLayers) {
-    parentDependenciesNotFound.forEach(
-        (filePath, artifact) -> {
-          logger.log(LogLevel.INFO, "Dependency from parent not found: " + filePath);
-          String potentialMatches =
-              originalLayers.stream()
-                  .flatMap(layer -> layer.getEntries().stream())
-                  .map(FileEntry::getSourceFile)
-                  .filter(
-                      file -> {
-                        String string = file.getFileName().toString();
-                        return string.endsWith(".jar") && string.contains(artifact.getArtifactId());
-                      })
-                  .map(Path::toString)
-                  .collect(Collectors.joining(","));
-          if (!potentialMatches.isEmpty()) {
-            logger.log(LogLevel.INFO, "Potential matches: " + potentialMatches);
-          }
-        });
+    ParentDependencyReport report = new ParentDependencyReport(parentDependencyCount);
+    if (parentDependenciesNotFound.isEmpty()) {
+      return report;
+    }
+
+    // Indexed once, rather than scanning all files for every missing dependency.
+    JarNameIndex jarNameIndex = new JarNameIndex(originalLayers);
+    new TreeMap<>(parentDependenciesNotFound)
+        .forEach(
+            (filePath, artifact) -> {
+              logger.log(LogLevel.INFO, "Dependency from parent not found: " + filePath);
+              List<Path> potentialMatches =
+                  jarNameIndex.findPotentialMatches(artifact.getArtifactId());
+              if (!potentialMatches.isEmpty()) {
+                logger.log(
+                    LogLevel.INFO,
+                    "Potential matches: "
+                        + potentialMatches.stream()
+                            .map(Path::toString)
+                            .collect(Collectors.joining(",")));
+              }
+              report.addMissingDependency(artifact, filePath, potentialMatches);
+            });
+    return report;
   }
 
-  private void preparePathMatchersAndLayerBuilders(
+  private Filters prepareFilterMatcherAndLayerBuilders(
       ContainerBuildPlan buildPlan, Configuration config) throws JibPluginExtensionException {
     List<String> originalLayerNames =
         buildPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList());
 
-    newToLayers.clear(); // ensure empty (in case previously built module already populated it)
+    List<String> globs = new ArrayList<>();
+    List<String> toLayers = new ArrayList<>();
+    Map<String, FileEntriesLayer.Builder> newToLayers = new LinkedHashMap<>();
     for (Configuration.Filter filter : config.getFilters()) {
       String toLayerName = filter.getToLayer();
       if (!toLayerName.isEmpty() && originalLayerNames.contains(toLayerName)) {
@@ -254,12 +632,45 @@ public class JibLayerFilterExtension implements JibMavenPluginExtension<Configur
             getClass(), "glob pattern not given in filter configuration");
       }
 
-      pathMatchers.put(
-          FileSystems.getDefault().getPathMatcher("glob:" + filter.getGlob()), filter.getToLayer());
+      globs.add(filter.getGlob());
+      toLayers.add(toLayerName);
 
       newToLayers.computeIfAbsent(
           toLayerName, layerName -> FileEntriesLayer.builder().setName(layerName));
     }
+
+    // A compiled matcher depends on nothing but the globs, so sharing it between modules with the
+    // same globs never carries filters over between modules. Compiling the same globs twice in
+    // concurrent builds is harmless.
+    GlobMatcher matcher = compiledFilterMatchers.getIfPresent(globs);
+    if (matcher == null) {
+      matcher = GlobMatcher.compile(globs);
+      compiledFilterMatchers.put(globs, matcher);
+    }
+    return new Filters(matcher, toLayers, newToLayers);
+  }
+
+  /**
+   * Moves this {@code fileEntry} into its new layer if a filter says so.
+   *
+   * @param fileEntry file entry in question
+   * @param originalLayerName name of the original layer where {@code fileEntry} exists
+   * @param filters the filters of the build
+   * @return {@code true} if {@code fileEntry} stays in the original layer; {@code false} if it has
+   *     been moved or should be deleted
+   */
+  private static boolean keepOrMove(
+      FileEntry fileEntry, String originalLayerName, Filters filters) {
+    Optional<String> finalLayerName =
+        determineFinalLayerName(fileEntry, originalLayerName, filters);
+    if (!finalLayerName.isPresent()) {
+      return false; // delete
+    }
+    if (finalLayerName.get().equals(originalLayerName)) {
+      return true;
+    }
+    Verify.verifyNotNull(filters.newToLayers.get(finalLayerName.get())).addEntry(fileEntry);
+    return false;
   }
 
   /**
@@ -268,24 +679,19 @@ public class JibLayerFilterExtension implements JibMavenPluginExtension<Configur
    *
    * @param fileEntry file entry in question
    * @param originalLayerName name of the original layer where {@code fileEntry} exists
+   * @param filters the filters of the build
    * @return final layer name into which {@code fileEntry} should move. May be same as {@code
    *     originalLayerName}. {@link Optional#empty()} indicates deletion.
    */
-  private Optional<String> determineFinalLayerName(FileEntry fileEntry, String originalLayerName) {
-    Optional<String> finalLayerName = Optional.of(originalLayerName);
-
-    for (Map.Entry<PathMatcher, String> mapEntry : pathMatchers.entrySet()) {
-      PathMatcher matcher = mapEntry.getKey();
-      Path pathInContainer = Paths.get(fileEntry.getExtractionPath().toString());
-      if (matcher.matches(pathInContainer)) {
-        String toLayerName = mapEntry.getValue();
-        if (toLayerName.isEmpty()) {
-          finalLayerName = Optional.empty(); // Mark deletion.
-        } else {
-          finalLayerName = Optional.of(toLayerName);
-        }
-      }
+  private static Optional<String> determineFinalLayerName(
+      FileEntry fileEntry, String originalLayerName, Filters filters) {
+    int filterIndex = filters.matcher.lastMatchIndex(fileEntry.getExtractionPath().toString());
+    if (filterIndex < 0) {
+      return Optional.of(originalLayerName);
     }
-    return finalLayerName;
+
+    String toLayerName = filters.toLayers.get(filterIndex);
+    // Empty toLayerName marks deletion.
+    return toLayerName.isEmpty() ? Optional.empty() : Optional.of(toLayerName);
   }
 }
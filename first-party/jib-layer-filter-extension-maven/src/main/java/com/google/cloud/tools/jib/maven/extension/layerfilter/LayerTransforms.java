@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.layerfilter;
+
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.FileEntry;
+import com.google.cloud.tools.jib.api.buildplan.LayerObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Transformations of build plan layers that return unchanged layers and plans as they are, copying
+ * only what actually changes.
+ */
+class LayerTransforms {
+
+  /**
+   * Keeps the entries of {@code layer} that satisfy {@code keep}. {@code keep} is tested on the
+   * entries in order, exactly once each.
+   *
+   * @param layer the layer
+   * @param keep returns {@code true} for entries to keep
+   * @return {@code layer} itself if all entries are kept; otherwise a new layer with the kept
+   *     entries
+   */
+  static FileEntriesLayer filterEntries(FileEntriesLayer layer, Predicate<FileEntry> keep) {
+    List<FileEntry> entries = layer.getEntries();
+    List<FileEntry> keptEntries = null; // created on the first dropped entry
+    for (int i = 0; i < entries.size(); i++) {
+      FileEntry entry = entries.get(i);
+      boolean kept = keep.test(entry);
+      if (keptEntries == null && !kept) {
+        keptEntries = new ArrayList<>(entries.subList(0, i));
+      } else if (keptEntries != null && kept) {
+        keptEntries.add(entry);
+      }
+    }
+    return keptEntries == null ? layer : layer.toBuilder().setEntries(keptEntries).build();
+  }
+
+  /**
+   * Sets the layers of {@code buildPlan}.
+   *
+   * @param buildPlan the build plan
+   * @param newLayers the new layers
+   * @return {@code buildPlan} itself if {@code newLayers} are the same layer instances in the same
+   *     order; otherwise a new build plan with {@code newLayers}
+   */
+  static ContainerBuildPlan setLayers(
+      ContainerBuildPlan buildPlan, List<? extends LayerObject> newLayers) {
+    List<? extends LayerObject> layers = buildPlan.getLayers();
+    if (layers.size() == newLayers.size()) {
+      boolean unchanged = true;
+      for (int i = 0; i < layers.size() && unchanged; i++) {
+        unchanged = layers.get(i) == newLayers.get(i);
+      }
+      if (unchanged) {
+        return buildPlan;
+      }
+    }
+    return buildPlan.toBuilder().setLayers(newLayers).build();
+  }
+
+  /**
+   * Finds the longest common prefix of the extraction paths of all entries in {@code layer}.
+   *
+   * @param layer the layer
+   * @return the common prefix; empty if {@code layer} has no entries
+   */
+  static String getCommonPathPrefix(FileEntriesLayer layer) {
+    List<FileEntry> entries = layer.getEntries();
+    if (entries.isEmpty()) {
+      return "";
+    }
+    String first = entries.get(0).getExtractionPath().toString();
+    int prefixLength = first.length();
+    for (int i = 1; i < entries.size(); i++) {
+      String path = entries.get(i).getExtractionPath().toString();
+      int maxLength = Math.min(prefixLength, path.length());
+      prefixLength = 0;
+      while (prefixLength < maxLength && path.charAt(prefixLength) == first.charAt(prefixLength)) {
+        prefixLength++;
+      }
+    }
+    return first.substring(0, prefixLength);
+  }
+
+  private LayerTransforms() {}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.layerfilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.eclipse.aether.artifact.Artifact;
+
+/**
+ * Report of moving parent dependencies to parent layers, with the dependencies that were not found
+ * in any layer and the files that potentially match them. Written as JSON:
+ *
+ * <pre>{@code
+ * {
+ *   "parentDependencyCount": 2,
+ *   "missingDependencies": [
+ *     {
+ *       "groupId": "com.example",
+ *       "artifactId": "lib",
+ *       "version": "1.0.0",
+ *       "file": "/home/user/.m2/repository/com/example/lib/1.0.0/lib-1.0.0.jar",
+ *       "potentialMatches": ["/home/user/.m2/repository/com/example/lib/2.0.0/lib-2.0.0.jar"]
+ *     }
+ *   ]
+ * }
+ * }</pre>
+ */
+class ParentDependencyReport {
+
+  private static class MissingDependency {
+    private final Artifact artifact;
+    private final Path file;
+    private final List<Path> potentialMatches;
+
+    private MissingDependency(Artifact artifact, Path file, List<Path> potentialMatches) {
+      this.artifact = artifact;
+      this.file = file;
+      this.potentialMatches = potentialMatches;
+    }
+  }
+
+  private static String toJsonString(@Nullable String string) {
+    if (string == null) {
+      return "null";
+    }
+    StringBuilder json = new StringBuilder("\"");
+    for (char character : string.toCharArray()) {
+      if (character == '"' || character == '\\') {
+        json.append('\\').append(character);
+      } else if (character < 0x20) {
+        json.append(String.format("\\u%04x", (int) character));
+      } else {
+        json.append(character);
+      }
+    }
+    return json.append('"').toString();
+  }
+
+  private final int parentDependencyCount;
+  private final List<MissingDependency> missingDependencies = new ArrayList<>();
+
+  ParentDependencyReport(int parentDependencyCount) {
+    this.parentDependencyCount = parentDependencyCount;
+  }
+
+  void addMissingDependency(Artifact artifact, Path file, List<Path> potentialMatches) {
+    missingDependencies.add(new MissingDependency(artifact, file, potentialMatches));
+  }
+
+  String toJson() {
+    StringBuilder json = new StringBuilder();
+    json.append("{\n")
+        .append("  \"parentDependencyCount\": ")
+        .append(parentDependencyCount)
+        .append(",\n")
+        .append("  \"missingDependencies\": [");
+    for (int i = 0; i < missingDependencies.size(); i++) {
+      MissingDependency missing = missingDependencies.get(i);
+      String potentialMatches =
+          missing.potentialMatches.stream()
+              .map(path -> toJsonString(path.toString()))
+              .collect(Collectors.joining(", "));
+      json.append(i == 0 ? "\n" : ",\n")
+          .append("    {\n")
+          .append("      \"groupId\": ")
+          .append(toJsonString(missing.artifact.getGroupId()))
+          .append(",\n")
+          .append("      \"artifactId\": ")
+          .append(toJsonString(missing.artifact.getArtifactId()))
+          .append(",\n")
+          .append("      \"version\": ")
+          .append(toJsonString(missing.artifact.getVersion()))
+          .append(",\n")
+          .append("      \"file\": ")
+          .append(toJsonString(missing.file.toString()))
+          .append(",\n")
+          .append("      \"potentialMatches\": [")
+          .append(potentialMatches)
+          .append("]\n")
+          .append("    }");
+    }
+    json.append(missingDependencies.isEmpty() ? "]\n" : "\n  ]\n").append("}\n");
+    return json.toString();
+  }
+
+  void writeTo(Path reportFile) throws IOException {
+    if (reportFile.getParent() != null) {
+      Files.createDirectories(reportFile.getParent());
+    }
+    Files.write(reportFile, toJson().getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -20,7 +20,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +35,9 @@ import com.google.cloud.tools.jib.maven.extension.MavenData;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,10 +51,13 @@ import org.apache.maven.project.DependencyResolutionRequest;
 import org.apache.maven.project.DependencyResolutionResult;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectDependenciesResolver;
+import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.graph.Dependency;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -57,6 +66,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class JibLayerFilterExtensionTest {
 
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Mock private Configuration config;
   @Mock private ExtensionLogger logger;
   @Mock private MavenData mavenData;
@@ -65,10 +76,14 @@ public class JibLayerFilterExtensionTest {
   @Mock private MavenSession mavenSession;
   @Mock private ProjectDependenciesResolver projectDependenciesResolver;
   @Mock private DependencyResolutionResult dependencyResolutionResult;
+  @Mock private RepositorySystemSession repositorySession;
 
   @Before
   public void setUp() throws DependencyResolutionException {
     when(config.getFilters()).thenReturn(Collections.emptyList());
+    when(config.getSplitStrategy()).thenReturn(new Configuration.SplitStrategy());
+    when(config.getLayerHistoryFile()).thenReturn("");
+    when(config.getParentDependencyReportFile()).thenReturn("");
     when(mavenData.getMavenProject()).thenReturn(mavenProject);
     when(mavenData.getMavenSession()).thenReturn(mavenSession);
     when(mavenProject.getParent()).thenReturn(mavenParentProject);
@@ -104,6 +119,19 @@ public class JibLayerFilterExtensionTest {
     return filter;
   }
 
+  private static Configuration.SplitStrategy mockSplitStrategy(
+      List<String> layers, String strategy, int count) {
+    Configuration.SplitStrategy splitStrategy = mock(Configuration.SplitStrategy.class);
+    when(splitStrategy.getLayers()).thenReturn(layers);
+    when(splitStrategy.getStrategy()).thenReturn(strategy);
+    when(splitStrategy.getCount()).thenReturn(count);
+    return splitStrategy;
+  }
+
+  private static String toJsonString(String string) {
+    return "\"" + string.replace("\\", "\\\\") + "\"";
+  }
+
   private static Dependency mockDependency(String sourcePath, String artifactId) {
     Artifact artifact = mock(Artifact.class);
     when(artifact.getArtifactId()).thenReturn(artifactId);
@@ -236,8 +264,9 @@ public class JibLayerFilterExtensionTest {
     ContainerBuildPlan newPlan =
         extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
 
-    ArrayList<String> layerNames = new ArrayList<>(extension.newToLayers.keySet());
-    assertEquals(Arrays.asList("foo", "same layer name", "bar", "baz"), layerNames);
+    assertEquals(
+        Arrays.asList("foo", "same layer name", "bar", "baz"),
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
 
     assertEquals(4, newPlan.getLayers().size());
     FileEntriesLayer newLayer1 = (FileEntriesLayer) newPlan.getLayers().get(0);
@@ -276,6 +305,56 @@ public class JibLayerFilterExtensionTest {
     assertEquals(layer.getEntries(), newLayer.getEntries());
   }
 
+  @Test
+  public void testExtendContainerBuildPlan_unchangedLayersKeptAsIs()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer1 = buildLayer("foo", Arrays.asList("/alpha/Alice", "/alpha/Bob"));
+    FileEntriesLayer layer2 = buildLayer("bar", Arrays.asList("/beta/Alice", "/beta/Bob"));
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().setLayers(Arrays.asList(layer1, layer2)).build();
+
+    Configuration.Filter filter = mockFilter("/gamma/**", "gamma");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter));
+
+    ContainerBuildPlan newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+    assertSame(buildPlan, newPlan);
+
+    Configuration.Filter filter2 = mockFilter("/beta/Bob", "Bob");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter, filter2));
+
+    newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+    assertEquals(3, newPlan.getLayers().size());
+    assertSame(layer1, newPlan.getLayers().get(0));
+    FileEntriesLayer newLayer2 = (FileEntriesLayer) newPlan.getLayers().get(1);
+    assertEquals(Arrays.asList("/beta/Alice"), layerToExtractionPaths(newLayer2));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_layersNoFilterCanMatchSkipped()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer1 = buildLayer("foo", Arrays.asList("/alpha/Alice", "/alpha/Bob"));
+    FileEntriesLayer layer2 = buildLayer("bar", Arrays.asList("/beta/Alice", "/beta/Bob"));
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().setLayers(Arrays.asList(layer1, layer2)).build();
+
+    Configuration.Filter filter = mockFilter("/beta/A*", "Alice");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter));
+
+    ContainerBuildPlan newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+
+    verify(logger).log(LogLevel.DEBUG, "Skipping layer 'foo': no filter can match");
+    verify(logger, never()).log(LogLevel.DEBUG, "Skipping layer 'bar': no filter can match");
+    List<String> layerNames =
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList());
+    assertEquals(Arrays.asList("foo", "bar", "Alice"), layerNames);
+  }
+
   @Test
   public void testExtendContainerBuildPlan_complex() throws JibPluginExtensionException {
     FileEntriesLayer layer1 =
@@ -477,6 +556,352 @@ public class JibLayerFilterExtensionTest {
     verify(logger).log(LogLevel.INFO, "Dependency from parent not found: parentlibfilteredpath");
   }
 
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_report()
+      throws JibPluginExtensionException, IOException {
+    FileEntriesLayer layer =
+        buildLayer(
+            "layer",
+            Arrays.asList("libs/found-1.0.jar", "libs/missing-2.0.jar"),
+            Arrays.asList("/libs/found-1.0.jar", "/libs/missing-2.0.jar"));
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(config.getParentDependencyReportFile()).thenReturn("target/report.json");
+    when(mavenProject.getBasedir()).thenReturn(temporaryFolder.getRoot());
+    Dependency foundDependency = mockDependency("libs/found-1.0.jar", "found");
+    Dependency missingDependency = mockDependency("libs/missing-1.0.jar", "missing");
+    when(dependencyResolutionResult.getDependencies())
+        .thenReturn(Arrays.asList(foundDependency, missingDependency));
+
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+    extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+
+    String report =
+        new String(
+            Files.readAllBytes(temporaryFolder.getRoot().toPath().resolve("target/report.json")),
+            StandardCharsets.UTF_8);
+    assertEquals(
+        "{\n"
+            + "  \"parentDependencyCount\": 2,\n"
+            + "  \"missingDependencies\": [\n"
+            + "    {\n"
+            + "      \"groupId\": null,\n"
+            + "      \"artifactId\": \"missing\",\n"
+            + "      \"version\": null,\n"
+            + "      \"file\": "
+            + toJsonString(Paths.get("libs/missing-1.0.jar").toString())
+            + ",\n"
+            + "      \"potentialMatches\": ["
+            + toJsonString(Paths.get("libs/missing-2.0.jar").toString())
+            + "]\n"
+            + "    }\n"
+            + "  ]\n"
+            + "}\n",
+        report);
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createParentLayers_parentResolvedOncePerSession()
+      throws JibPluginExtensionException, DependencyResolutionException {
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(buildLayer("layer", Arrays.asList("parentlibpath"), Arrays.asList("/lib")))
+            .build();
+
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    when(mavenSession.getRepositorySession()).thenReturn(repositorySession);
+    when(mavenParentProject.getGroupId()).thenReturn("com.example");
+    when(mavenParentProject.getArtifactId()).thenReturn("parent");
+    when(mavenParentProject.getVersion()).thenReturn("1.0");
+    Dependency parentDependency = mockDependency("parentlibpath", "parent-lib");
+    when(dependencyResolutionResult.getDependencies()).thenReturn(Arrays.asList(parentDependency));
+
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+
+    // two modules with the same parent
+    ContainerBuildPlan newPlan1 =
+        extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+    ContainerBuildPlan newPlan2 =
+        extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+
+    verify(projectDependenciesResolver, times(1)).resolve(any(DependencyResolutionRequest.class));
+    assertEquals("layer-parent", newPlan1.getLayers().get(0).getName());
+    assertEquals("layer-parent", newPlan2.getLayers().get(0).getName());
+
+    // a different parent version is resolved again
+    when(mavenParentProject.getVersion()).thenReturn("2.0");
+    extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+    verify(projectDependenciesResolver, times(2)).resolve(any(DependencyResolutionRequest.class));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createAncestorLayers()
+      throws JibPluginExtensionException, DependencyResolutionException {
+    FileEntriesLayer layer =
+        buildLayer(
+            "deps",
+            Arrays.asList("libapath", "libbpath", "libcpath"),
+            Arrays.asList("/libs/lib-a.jar", "/libs/lib-b.jar", "/libs/lib-c.jar"));
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    when(config.isCreateAncestorDependencyLayers()).thenReturn(true);
+    MavenProject mavenGrandparentProject = mock(MavenProject.class);
+    when(mavenParentProject.getParent()).thenReturn(mavenGrandparentProject);
+    when(mavenParentProject.getArtifactId()).thenReturn("parent");
+    when(mavenGrandparentProject.getArtifactId()).thenReturn("grandparent");
+
+    // lib-a is in both ancestors, so it goes to the grandparent layer
+    Dependency dependencyA = mockDependency("libapath", "lib-a");
+    Dependency dependencyB = mockDependency("libbpath", "lib-b");
+    DependencyResolutionResult grandparentResult = mock(DependencyResolutionResult.class);
+    when(grandparentResult.getDependencies()).thenReturn(Arrays.asList(dependencyA));
+    when(dependencyResolutionResult.getDependencies())
+        .thenReturn(Arrays.asList(dependencyA, dependencyB));
+    when(projectDependenciesResolver.resolve(
+            argThat(request -> request.getMavenProject() == mavenGrandparentProject)))
+        .thenReturn(grandparentResult);
+
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+
+    ContainerBuildPlan newPlan =
+        extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+
+    assertEquals(
+        Arrays.asList("deps-parent-2", "deps-parent-1", "deps"),
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList("/libs/lib-a.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(0)));
+    assertEquals(
+        Arrays.asList("/libs/lib-b.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(1)));
+    assertEquals(
+        Arrays.asList("/libs/lib-c.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(2)));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createSharedDependencyLayer()
+      throws JibPluginExtensionException, DependencyResolutionException {
+    MavenProject module1 = mock(MavenProject.class);
+    MavenProject module2 = mock(MavenProject.class);
+    MavenProject otherModule = mock(MavenProject.class);
+    when(module1.getGroupId()).thenReturn("com.example");
+    when(module1.getArtifactId()).thenReturn("module1");
+    when(module2.getArtifactId()).thenReturn("module2");
+    when(otherModule.getArtifactId()).thenReturn("other");
+    // as with "-pl module1": module2 is not selected for the build but still counts
+    when(mavenSession.getAllProjects()).thenReturn(Arrays.asList(otherModule, module1, module2));
+
+    Dependency commonA = mockDependency("common-a.jar", "common-a");
+    Dependency commonB = mockDependency("common-b.jar", "common-b");
+    Dependency only1 = mockDependency("only-1.jar", "only-1");
+    Dependency only2 = mockDependency("only-2.jar", "only-2");
+    DependencyResolutionResult result1 = mock(DependencyResolutionResult.class);
+    DependencyResolutionResult result2 = mock(DependencyResolutionResult.class);
+    when(result1.getDependencies()).thenReturn(Arrays.asList(commonA, commonB, only1));
+    when(result2.getDependencies()).thenReturn(Arrays.asList(only2, commonB, commonA));
+    when(projectDependenciesResolver.resolve(
+            argThat(request -> request != null && request.getMavenProject() == module1)))
+        .thenReturn(result1);
+    when(projectDependenciesResolver.resolve(
+            argThat(request -> request != null && request.getMavenProject() == module2)))
+        .thenReturn(result2);
+
+    when(config.isCreateSharedDependencyLayer()).thenReturn(true);
+    when(config.getSharedDependencyModules())
+        .thenReturn(Arrays.asList("com.example:module1", "module2"));
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+
+    ContainerBuildPlan buildPlan1 =
+        ContainerBuildPlan.builder()
+            .addLayer(
+                buildLayer(
+                    "dependencies",
+                    Arrays.asList("common-b.jar", "only-1.jar", "common-a.jar"),
+                    Arrays.asList("/libs/common-b.jar", "/libs/only-1.jar", "/libs/common-a.jar")))
+            .build();
+    ContainerBuildPlan buildPlan2 =
+        ContainerBuildPlan.builder()
+            .addLayer(
+                buildLayer(
+                    "dependencies",
+                    Arrays.asList("common-a.jar", "common-b.jar", "only-2.jar"),
+                    Arrays.asList("/libs/common-a.jar", "/libs/common-b.jar", "/libs/only-2.jar")))
+            .build();
+    ContainerBuildPlan newPlan1 =
+        extension.extendContainerBuildPlan(
+            buildPlan1, null, Optional.of(config), mavenData, logger);
+    ContainerBuildPlan newPlan2 =
+        extension.extendContainerBuildPlan(
+            buildPlan2, null, Optional.of(config), mavenData, logger);
+
+    // the same shared layer in both images
+    for (ContainerBuildPlan newPlan : Arrays.asList(newPlan1, newPlan2)) {
+      assertEquals(
+          Arrays.asList("shared dependencies", "dependencies"),
+          newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+      assertEquals(
+          Arrays.asList("/libs/common-a.jar", "/libs/common-b.jar"),
+          layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(0)));
+    }
+    assertEquals(
+        ((FileEntriesLayer) newPlan1.getLayers().get(0)).getEntries(),
+        ((FileEntriesLayer) newPlan2.getLayers().get(0)).getEntries());
+    assertEquals(
+        Arrays.asList("/libs/only-1.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan1.getLayers().get(1)));
+    // computed once for the session
+    verify(projectDependenciesResolver, times(2)).resolve(any(DependencyResolutionRequest.class));
+    verify(logger)
+        .log(
+            LogLevel.INFO,
+            "Shared dependencies of modules [com.example:module1, module2]: 2 files");
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createSharedDependencyLayer_unresolvableModuleSkipped()
+      throws JibPluginExtensionException, DependencyResolutionException {
+    MavenProject module1 = mock(MavenProject.class);
+    MavenProject module2 = mock(MavenProject.class);
+    MavenProject unbuiltModule = mock(MavenProject.class);
+    when(module1.getArtifactId()).thenReturn("module1");
+    when(module2.getArtifactId()).thenReturn("module2");
+    when(unbuiltModule.getArtifactId()).thenReturn("unbuilt");
+    when(mavenSession.getAllProjects()).thenReturn(Arrays.asList(module1, module2, unbuiltModule));
+
+    Dependency common = mockDependency("common.jar", "common");
+    DependencyResolutionResult result = mock(DependencyResolutionResult.class);
+    when(result.getDependencies()).thenReturn(Arrays.asList(common));
+    when(projectDependenciesResolver.resolve(
+            argThat(request -> request != null && request.getMavenProject() != unbuiltModule)))
+        .thenReturn(result);
+    when(projectDependenciesResolver.resolve(
+            argThat(request -> request != null && request.getMavenProject() == unbuiltModule)))
+        .thenThrow(new DependencyResolutionException(null, "not built yet", null));
+
+    when(config.isCreateSharedDependencyLayer()).thenReturn(true);
+    when(config.getSharedDependencyModules())
+        .thenReturn(Arrays.asList("module1", "unbuilt", "module2"));
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(
+                buildLayer(
+                    "dependencies",
+                    Arrays.asList("common.jar", "own.jar"),
+                    Arrays.asList("/libs/common.jar", "/libs/own.jar")))
+            .build();
+    ContainerBuildPlan newPlan =
+        extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+
+    assertEquals(
+        Arrays.asList("shared dependencies", "dependencies"),
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList("/libs/common.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(0)));
+    verify(logger)
+        .log(
+            LogLevel.WARN,
+            "Skipping module 'unbuilt' for the shared dependency layer: "
+                + "Error when resolving dependencies of null:unbuilt:null");
+    verify(logger)
+        .log(LogLevel.INFO, "Shared dependencies of modules [module1, module2]: 1 files");
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createSharedDependencyLayer_notSplitByParent()
+      throws JibPluginExtensionException, DependencyResolutionException {
+    MavenProject module1 = mock(MavenProject.class);
+    MavenProject module2 = mock(MavenProject.class);
+    when(module1.getArtifactId()).thenReturn("module1");
+    when(module2.getArtifactId()).thenReturn("module2");
+    when(mavenSession.getAllProjects()).thenReturn(Arrays.asList(module1, module2));
+
+    // "common" is a dependency of both modules and of the parent
+    Dependency common = mockDependency("common.jar", "common");
+    Dependency parentLib = mockDependency("parent-lib.jar", "parent-lib");
+    DependencyResolutionResult moduleResult = mock(DependencyResolutionResult.class);
+    when(moduleResult.getDependencies()).thenReturn(Arrays.asList(common));
+    when(projectDependenciesResolver.resolve(
+            argThat(request -> request != null && request.getMavenProject() != mavenParentProject)))
+        .thenReturn(moduleResult);
+    when(dependencyResolutionResult.getDependencies()).thenReturn(Arrays.asList(common, parentLib));
+
+    when(config.isCreateSharedDependencyLayer()).thenReturn(true);
+    when(config.getSharedDependencyModules()).thenReturn(Arrays.asList("module1", "module2"));
+    when(config.isCreateParentDependencyLayers()).thenReturn(true);
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(
+                buildLayer(
+                    "dependencies",
+                    Arrays.asList("common.jar", "parent-lib.jar", "own.jar"),
+                    Arrays.asList("/libs/common.jar", "/libs/parent-lib.jar", "/libs/own.jar")))
+            .build();
+    ContainerBuildPlan newPlan =
+        extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+
+    assertEquals(
+        Arrays.asList("shared dependencies", "dependencies-parent", "dependencies"),
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList("/libs/common.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(0)));
+    assertEquals(
+        Arrays.asList("/libs/parent-lib.jar"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan.getLayers().get(1)));
+    verify(logger, never())
+        .log(LogLevel.INFO, "Dependency from parent not found: " + Paths.get("common.jar"));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createSharedDependencyLayer_moduleNotFound() {
+    when(mavenSession.getAllProjects()).thenReturn(Arrays.asList(mavenProject));
+    when(config.isCreateSharedDependencyLayer()).thenReturn(true);
+    when(config.getSharedDependencyModules()).thenReturn(Arrays.asList("missing"));
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().addLayer(buildLayer("dependencies", Arrays.asList())).build();
+    try {
+      extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals("shared dependency module 'missing' not found in the reactor", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_createSharedDependencyLayer_noModules() {
+    when(config.isCreateSharedDependencyLayer()).thenReturn(true);
+    when(config.getSharedDependencyModules()).thenReturn(Collections.emptyList());
+    JibLayerFilterExtension extension = new JibLayerFilterExtension();
+    extension.dependencyResolver = projectDependenciesResolver;
+
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().addLayer(buildLayer("dependencies", Arrays.asList())).build();
+    try {
+      extension.extendContainerBuildPlan(buildPlan, null, Optional.of(config), mavenData, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(
+          "createSharedDependencyLayer requires 'sharedDependencyModules'", ex.getMessage());
+    }
+  }
+
   @Test
   public void testExtendContainerBuildPlan_multipleModulesBuild()
       throws JibPluginExtensionException {
@@ -527,4 +952,163 @@ public class JibLayerFilterExtensionTest {
         newLayer1M2.getEntries());
     assertEquals(buildLayer("", Arrays.asList("/m2/bar/b")).getEntries(), newLayer2M2.getEntries());
   }
+
+  @Test
+  public void testExtendContainerBuildPlan_multipleModulesBuild_differentFilters()
+      throws JibPluginExtensionException {
+    JibLayerFilterExtension filterExtension =
+        new JibLayerFilterExtension(); // same instance used for all modules
+
+    Configuration.Filter filterFoo = mockFilter("**/foo/**", "foo");
+    Configuration.Filter filterBar = mockFilter("**/bar/**", "bar");
+    Configuration.Filter filterFooToBaz = mockFilter("**/foo/**", "baz");
+    Configuration config1 = mock(Configuration.class);
+    Configuration config2 = mock(Configuration.class);
+    Configuration config3 = mock(Configuration.class);
+    when(config1.getFilters()).thenReturn(Arrays.asList(filterFoo));
+    when(config2.getFilters()).thenReturn(Arrays.asList(filterBar));
+    when(config3.getFilters()).thenReturn(Arrays.asList(filterFooToBaz));
+    when(config1.getSplitStrategy()).thenReturn(new Configuration.SplitStrategy());
+    when(config1.getLayerHistoryFile()).thenReturn("");
+    when(config2.getSplitStrategy()).thenReturn(new Configuration.SplitStrategy());
+    when(config2.getLayerHistoryFile()).thenReturn("");
+    when(config3.getSplitStrategy()).thenReturn(new Configuration.SplitStrategy());
+    when(config3.getLayerHistoryFile()).thenReturn("");
+
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(buildLayer("app", Arrays.asList("/foo/a", "/bar/b", "/other/c")))
+            .build();
+
+    ContainerBuildPlan newPlan1 =
+        filterExtension.extendContainerBuildPlan(
+            buildPlan, null, Optional.of(config1), null, logger);
+    ContainerBuildPlan newPlan2 =
+        filterExtension.extendContainerBuildPlan(
+            buildPlan, null, Optional.of(config2), null, logger);
+    ContainerBuildPlan newPlan3 =
+        filterExtension.extendContainerBuildPlan(
+            buildPlan, null, Optional.of(config3), null, logger);
+
+    assertEquals(
+        Arrays.asList("app", "foo"),
+        newPlan1.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList("/bar/b", "/other/c"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan1.getLayers().get(0)));
+
+    assertEquals(
+        Arrays.asList("app", "bar"),
+        newPlan2.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList("/foo/a", "/other/c"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan2.getLayers().get(0)));
+
+    // same globs as config1, so the compiled matcher is reused, but with a different toLayer
+    assertEquals(
+        Arrays.asList("app", "baz"),
+        newPlan3.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList()));
+    assertEquals(
+        Arrays.asList("/foo/a"),
+        layerToExtractionPaths((FileEntriesLayer) newPlan3.getLayers().get(1)));
+    assertEquals(2, filterExtension.compiledFilterMatchers.size());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers() throws JibPluginExtensionException {
+    FileEntriesLayer layer =
+        buildLayer(
+            "dependencies",
+            Arrays.asList(
+                "/app/libs/a-1.0.jar",
+                "/app/libs/b-1.0.jar",
+                "/app/libs/c-1.0.jar",
+                "/app/libs/in-house-1.0.jar"));
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    Configuration.Filter filter = mockFilter("/app/libs/in-house-*.jar", "in-house");
+    when(config.getFilters()).thenReturn(Arrays.asList(filter));
+    when(config.getSplitStrategy())
+        .thenReturn(mockSplitStrategy(Arrays.asList("dependencies", "in-house"), "artifact", 2));
+
+    ContainerBuildPlan newPlan =
+        new JibLayerFilterExtension()
+            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+
+    List<String> layerNames =
+        newPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList());
+    // split after filtering, so the in-house JAR is in a sublayer of the "in-house" layer
+    assertEquals(
+        layerNames.toString(),
+        1,
+        layerNames.stream().filter(name -> name.startsWith("in-house-")).count());
+    List<String> dependencyPaths = new ArrayList<>();
+    for (LayerObject newLayer : newPlan.getLayers()) {
+      if (newLayer.getName().startsWith("dependencies-")) {
+        dependencyPaths.addAll(layerToExtractionPaths((FileEntriesLayer) newLayer));
+      }
+    }
+    dependencyPaths.sort(null);
+    assertEquals(
+        Arrays.asList("/app/libs/a-1.0.jar", "/app/libs/b-1.0.jar", "/app/libs/c-1.0.jar"),
+        dependencyPaths);
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers_unknownStrategy() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.getSplitStrategy())
+        .thenReturn(mockSplitStrategy(Arrays.asList("dependencies"), "random", 8));
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals(
+          "unknown split strategy 'random'; use 'artifact', 'path-hash' or 'size'",
+          ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers_invalidCount() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    when(config.getSplitStrategy())
+        .thenReturn(mockSplitStrategy(Arrays.asList("dependencies"), "path-hash", 0));
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals("split count must be a positive integer, but got 0", ex.getMessage());
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_splitLayers_invalidTargetLayerSize() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+
+    Configuration.SplitStrategy splitStrategy =
+        mockSplitStrategy(Arrays.asList("dependencies"), "size", 8);
+    when(splitStrategy.getTargetLayerSize()).thenReturn("64 bananas");
+    when(config.getSplitStrategy()).thenReturn(splitStrategy);
+
+    try {
+      new JibLayerFilterExtension()
+          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibLayerFilterExtension.class, ex.getExtensionClass());
+      assertEquals(
+          "invalid target layer size '64 bananas'; use a positive number of bytes, optionally "
+              + "followed by KB, MB or GB",
+          ex.getMessage());
+    }
+  }
 }
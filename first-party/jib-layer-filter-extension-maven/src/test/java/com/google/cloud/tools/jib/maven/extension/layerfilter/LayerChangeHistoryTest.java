@@ -0,0 +1,181 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.layerfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.LayerObject;
+import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Tests for {@link LayerChangeHistory}. */
+@RunWith(MockitoJUnitRunner.class)
+public class LayerChangeHistoryTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Mock private ExtensionLogger logger;
+
+  private Path classFile;
+  private Path jarFile;
+  private Path historyFile;
+
+  @Before
+  public void setUp() throws IOException {
+    classFile = temporaryFolder.newFile("Foo.class").toPath();
+    jarFile = temporaryFolder.newFile("lib-1.0.jar").toPath();
+    Files.write(classFile, new byte[] {1});
+    Files.write(jarFile, new byte[] {1, 2});
+    historyFile = temporaryFolder.getRoot().toPath().resolve("history/layers.properties");
+  }
+
+  private ContainerBuildPlan buildPlan() {
+    return ContainerBuildPlan.builder()
+        .addLayer(buildLayer("classes", classFile, "/app/classes/Foo.class"))
+        .addLayer(buildLayer("dependencies", jarFile, "/app/libs/lib-1.0.jar"))
+        .build();
+  }
+
+  private static FileEntriesLayer buildLayer(String name, Path file, String pathInContainer) {
+    return FileEntriesLayer.builder()
+        .setName(name)
+        .addEntry(file, AbsoluteUnixPath.get(pathInContainer))
+        .build();
+  }
+
+  private static List<String> layerNames(ContainerBuildPlan buildPlan) {
+    return buildPlan.getLayers().stream().map(LayerObject::getName).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testOrderByChangeFrequency_firstBuildKeepsOrder() throws IOException {
+    ContainerBuildPlan buildPlan = buildPlan();
+    ContainerBuildPlan newPlan =
+        LayerChangeHistory.orderByChangeFrequency(buildPlan, historyFile, logger);
+
+    assertSame(buildPlan, newPlan);
+    assertTrue(Files.exists(historyFile));
+  }
+
+  @Test
+  public void testOrderByChangeFrequency_changingLayerMovesUp() throws IOException {
+    LayerChangeHistory.orderByChangeFrequency(buildPlan(), historyFile, logger);
+
+    Files.write(classFile, new byte[] {1, 2, 3});
+    ContainerBuildPlan newPlan =
+        LayerChangeHistory.orderByChangeFrequency(buildPlan(), historyFile, logger);
+    assertEquals(Arrays.asList("dependencies", "classes"), layerNames(newPlan));
+
+    // both change, but "dependencies" has changed less often
+    Files.write(classFile, new byte[] {1, 2, 3, 4});
+    Files.write(jarFile, new byte[] {1, 2, 3, 4});
+    newPlan = LayerChangeHistory.orderByChangeFrequency(buildPlan(), historyFile, logger);
+    assertEquals(Arrays.asList("dependencies", "classes"), layerNames(newPlan));
+  }
+
+  @Test
+  public void testOrderByChangeFrequency_smallDriftKeepsOrder() throws IOException {
+    LayerChangeHistory.orderByChangeFrequency(buildPlan(), historyFile, logger);
+
+    Files.write(jarFile, new byte[] {1, 2, 3});
+    ContainerBuildPlan newPlan =
+        LayerChangeHistory.orderByChangeFrequency(buildPlan(), historyFile, logger);
+    assertEquals(Arrays.asList("classes", "dependencies"), layerNames(newPlan));
+
+    LayerChangeHistory.orderByChangeFrequency(buildPlan(), historyFile, logger);
+
+    // "dependencies" now changes less often than "classes", but not clearly
+    Files.write(classFile, new byte[] {1, 2, 3});
+    newPlan = LayerChangeHistory.orderByChangeFrequency(buildPlan(), historyFile, logger);
+    assertEquals(Arrays.asList("classes", "dependencies"), layerNames(newPlan));
+  }
+
+  @Test
+  public void testOrderByChangeFrequency_extraFilesLayersStayLast() throws IOException {
+    Path extraFile = temporaryFolder.newFile("extra.txt").toPath();
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(buildLayer("classes", classFile, "/app/classes/Foo.class"))
+            .addLayer(buildLayer("dependencies", jarFile, "/app/libs/lib-1.0.jar"))
+            .addLayer(buildLayer("extra files", extraFile, "/extra.txt"))
+            .build();
+    LayerChangeHistory.orderByChangeFrequency(buildPlan, historyFile, logger);
+
+    Files.write(classFile, new byte[] {1, 2, 3});
+    ContainerBuildPlan newPlan =
+        LayerChangeHistory.orderByChangeFrequency(buildPlan, historyFile, logger);
+    assertEquals(Arrays.asList("dependencies", "classes", "extra files"), layerNames(newPlan));
+  }
+
+  @Test
+  public void testOrderByChangeFrequency_overlappingLayersKeepOrder() throws IOException {
+    Path patchFile = temporaryFolder.newFile("Foo-patched.class").toPath();
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(buildLayer("classes", classFile, "/app/classes/Foo.class"))
+            .addLayer(buildLayer("dependencies", jarFile, "/app/libs/lib-1.0.jar"))
+            .addLayer(buildLayer("patches", patchFile, "/app/classes/Foo.class"))
+            .build();
+    LayerChangeHistory.orderByChangeFrequency(buildPlan, historyFile, logger);
+
+    // "patches" overrides a file of "classes", so it cannot move before it
+    Files.write(classFile, new byte[] {1, 2, 3});
+    ContainerBuildPlan newPlan =
+        LayerChangeHistory.orderByChangeFrequency(buildPlan, historyFile, logger);
+    assertEquals(Arrays.asList("dependencies", "classes", "patches"), layerNames(newPlan));
+  }
+
+  @Test
+  public void testOrderByChangeFrequency_corruptHistory() throws IOException {
+    Files.createDirectories(historyFile.getParent());
+    Files.write(
+        historyFile,
+        Arrays.asList("classes.fingerprint=x", "classes.changeFrequency=not a number"));
+
+    ContainerBuildPlan buildPlan = buildPlan();
+    assertSame(
+        buildPlan, LayerChangeHistory.orderByChangeFrequency(buildPlan, historyFile, logger));
+  }
+
+  @Test
+  public void testFingerprint() throws IOException {
+    FileEntriesLayer layer = (FileEntriesLayer) buildPlan().getLayers().get(0);
+    String fingerprint = LayerChangeHistory.fingerprint(layer);
+    assertEquals(fingerprint, LayerChangeHistory.fingerprint(layer));
+
+    Files.write(classFile, new byte[] {1, 2});
+    assertNotEquals(fingerprint, LayerChangeHistory.fingerprint(layer));
+  }
+}
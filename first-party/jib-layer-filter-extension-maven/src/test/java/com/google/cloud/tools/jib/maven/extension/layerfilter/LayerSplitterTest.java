@@ -0,0 +1,234 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.layerfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
+import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
+import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.FileEntry;
+import com.google.cloud.tools.jib.api.buildplan.LayerObject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests for {@link LayerSplitter}. */
+public class LayerSplitterTest {
+
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static FileEntriesLayer buildLayer(String layerName, List<String> filePaths) {
+    FileEntriesLayer.Builder builder = FileEntriesLayer.builder().setName(layerName);
+    for (String path : filePaths) {
+      builder.addEntry(Paths.get("whatever"), AbsoluteUnixPath.get(path));
+    }
+    return builder.build();
+  }
+
+  private static FileEntry entry(String path) {
+    return buildLayer("", Collections.singletonList(path)).getEntries().get(0);
+  }
+
+  private static String findSublayerName(ContainerBuildPlan buildPlan, String path) {
+    for (LayerObject layer : buildPlan.getLayers()) {
+      for (FileEntry entry : ((FileEntriesLayer) layer).getEntries()) {
+        if (entry.getExtractionPath().toString().equals(path)) {
+          return layer.getName();
+        }
+      }
+    }
+    throw new AssertionError(path + " not found");
+  }
+
+  private FileEntriesLayer buildLayerWithSizes(String layerName, String[] fileNames, int[] sizes)
+      throws IOException {
+    FileEntriesLayer.Builder builder = FileEntriesLayer.builder().setName(layerName);
+    for (int i = 0; i < fileNames.length; i++) {
+      Path file = temporaryFolder.getRoot().toPath().resolve(fileNames[i]);
+      Files.write(file, new byte[sizes[i]]);
+      builder.addEntry(file, AbsoluteUnixPath.get("/app/libs/" + fileNames[i]));
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testParseSize() {
+    assertEquals(100, LayerSplitter.parseSize("100"));
+    assertEquals(100, LayerSplitter.parseSize("100B"));
+    assertEquals(2048, LayerSplitter.parseSize("2KB"));
+    assertEquals(64L << 20, LayerSplitter.parseSize("64MB"));
+    assertEquals(64L << 20, LayerSplitter.parseSize(" 64 mb "));
+    assertEquals(1L << 30, LayerSplitter.parseSize("1GB"));
+    assertThrows(IllegalArgumentException.class, () -> LayerSplitter.parseSize("0MB"));
+    assertThrows(IllegalArgumentException.class, () -> LayerSplitter.parseSize("-1MB"));
+    assertThrows(IllegalArgumentException.class, () -> LayerSplitter.parseSize("1TB"));
+    assertThrows(IllegalArgumentException.class, () -> LayerSplitter.parseSize("MB"));
+    assertThrows(
+        IllegalArgumentException.class, () -> LayerSplitter.parseSize("99999999999999999999"));
+  }
+
+  @Test
+  public void testGetArtifactKey() {
+    assertEquals("guava", LayerSplitter.getArtifactKey(entry("/app/libs/guava-30.1.1-jre.jar")));
+    assertEquals(
+        "google-http-client",
+        LayerSplitter.getArtifactKey(entry("/app/libs/google-http-client-1.34.0.jar")));
+    assertEquals("no-version", LayerSplitter.getArtifactKey(entry("/app/libs/no-version.jar")));
+    assertEquals(
+        "/app/resources/x-1.txt", LayerSplitter.getArtifactKey(entry("/app/resources/x-1.txt")));
+  }
+
+  @Test
+  public void testSplit() throws IOException {
+    FileEntriesLayer dependencies =
+        buildLayer(
+            "dependencies",
+            Arrays.asList(
+                "/app/libs/a-1.0.jar",
+                "/app/libs/b-1.0.jar",
+                "/app/libs/c-1.0.jar",
+                "/app/libs/d-1.0.jar",
+                "/app/libs/e-1.0.jar",
+                "/app/libs/f-1.0.jar"));
+    FileEntriesLayer classes = buildLayer("classes", Arrays.asList("/app/classes/Foo.class"));
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().addLayer(dependencies).addLayer(classes).build();
+
+    ContainerBuildPlan newPlan =
+        new LayerSplitter(Arrays.asList("dependencies"), LayerSplitter.Strategy.ARTIFACT, 3, 0)
+            .split(buildPlan);
+
+    List<? extends LayerObject> newLayers = newPlan.getLayers();
+    assertSame(classes, newLayers.get(newLayers.size() - 1));
+    List<String> sublayerNames =
+        newLayers.subList(0, newLayers.size() - 1).stream()
+            .map(LayerObject::getName)
+            .collect(Collectors.toList());
+    assertEquals(sublayerNames.stream().sorted().collect(Collectors.toList()), sublayerNames);
+    for (String name : sublayerNames) {
+      assertTrue(name, name.matches("dependencies-[123]"));
+    }
+    assertEquals(
+        dependencies.getEntries().size(),
+        newPlan.getLayers().stream()
+            .filter(layer -> layer != classes)
+            .mapToInt(layer -> ((FileEntriesLayer) layer).getEntries().size())
+            .sum());
+  }
+
+  @Test
+  public void testSplit_artifactStableAcrossVersions() throws IOException {
+    LayerSplitter splitter =
+        new LayerSplitter(Arrays.asList("dependencies"), LayerSplitter.Strategy.ARTIFACT, 8, 0);
+    ContainerBuildPlan oldPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(
+                buildLayer(
+                    "dependencies",
+                    Arrays.asList("/app/libs/a-1.0.jar", "/app/libs/guava-29.0-jre.jar")))
+            .build();
+    ContainerBuildPlan newPlan =
+        ContainerBuildPlan.builder()
+            .addLayer(
+                buildLayer(
+                    "dependencies",
+                    Arrays.asList("/app/libs/a-1.0.jar", "/app/libs/guava-30.1.1-jre.jar")))
+            .build();
+
+    assertEquals(
+        findSublayerName(splitter.split(oldPlan), "/app/libs/guava-29.0-jre.jar"),
+        findSublayerName(splitter.split(newPlan), "/app/libs/guava-30.1.1-jre.jar"));
+    assertEquals(
+        findSublayerName(splitter.split(oldPlan), "/app/libs/a-1.0.jar"),
+        findSublayerName(splitter.split(newPlan), "/app/libs/a-1.0.jar"));
+  }
+
+  @Test
+  public void testSplit_countOne() throws IOException {
+    FileEntriesLayer dependencies =
+        buildLayer("dependencies", Arrays.asList("/app/libs/a-1.0.jar", "/app/libs/b-1.0.jar"));
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(dependencies).build();
+
+    ContainerBuildPlan newPlan =
+        new LayerSplitter(Arrays.asList("dependencies"), LayerSplitter.Strategy.PATH_HASH, 1, 0)
+            .split(buildPlan);
+
+    assertEquals(1, newPlan.getLayers().size());
+    assertEquals("dependencies-1", newPlan.getLayers().get(0).getName());
+    assertEquals(
+        dependencies.getEntries(), ((FileEntriesLayer) newPlan.getLayers().get(0)).getEntries());
+  }
+
+  @Test
+  public void testSplit_size() throws IOException {
+    FileEntriesLayer dependencies =
+        buildLayerWithSizes(
+            "dependencies",
+            new String[] {"e-1.0.jar", "a-1.0.jar", "b-1.0.jar", "c-1.0.jar", "d-1.0.jar"},
+            new int[] {10, 60, 30, 50, 200});
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(dependencies).build();
+
+    ContainerBuildPlan newPlan =
+        new LayerSplitter(Arrays.asList("dependencies"), LayerSplitter.Strategy.SIZE, 1, 100)
+            .split(buildPlan);
+
+    long totalEntries = 0;
+    for (LayerObject layer : newPlan.getLayers()) {
+      long size = 0;
+      for (FileEntry entry : ((FileEntriesLayer) layer).getEntries()) {
+        size += Files.size(entry.getSourceFile());
+      }
+      // only a single file larger than the target may exceed it
+      assertTrue(
+          layer.getName(), size <= 100 || ((FileEntriesLayer) layer).getEntries().size() == 1);
+      totalEntries += ((FileEntriesLayer) layer).getEntries().size();
+    }
+    assertEquals(5, totalEntries);
+    // packed in path order: a (60), b (30) | c (50) | d (200) | e (10), at the latest
+    assertTrue(newPlan.getLayers().size() >= 4);
+    assertEquals("dependencies-1", newPlan.getLayers().get(0).getName());
+    assertEquals(
+        findSublayerName(newPlan, "/app/libs/d-1.0.jar"),
+        newPlan.getLayers().get(newPlan.getLayers().size() - 2).getName());
+    assertEquals(
+        findSublayerName(newPlan, "/app/libs/e-1.0.jar"),
+        newPlan.getLayers().get(newPlan.getLayers().size() - 1).getName());
+  }
+
+  @Test
+  public void testSplit_size_missingFile() {
+    FileEntriesLayer dependencies =
+        buildLayer("dependencies", Arrays.asList("/app/libs/a-1.0.jar"));
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(dependencies).build();
+
+    LayerSplitter splitter =
+        new LayerSplitter(Arrays.asList("dependencies"), LayerSplitter.Strategy.SIZE, 1, 100);
+    assertThrows(IOException.class, () -> splitter.split(buildPlan));
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.layerfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.eclipse.aether.artifact.Artifact;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Tests for {@link ParentDependencyReport}. */
+@RunWith(MockitoJUnitRunner.class)
+public class ParentDependencyReportTest {
+
+  @Mock private Artifact artifact;
+
+  @Test
+  public void testToJson_noMissingDependencies() {
+    assertEquals(
+        "{\n  \"parentDependencyCount\": 3,\n  \"missingDependencies\": []\n}\n",
+        new ParentDependencyReport(3).toJson());
+  }
+
+  @Test
+  public void testToJson_escaping() {
+    when(artifact.getGroupId()).thenReturn("com.\"quoted\"");
+    when(artifact.getArtifactId()).thenReturn("back\\slash");
+    when(artifact.getVersion()).thenReturn("1.0\n\t\0\u001f\u007f");
+
+    ParentDependencyReport report = new ParentDependencyReport(1);
+    report.addMissingDependency(artifact, Paths.get("lib.jar"), Collections.emptyList());
+
+    assertEquals(
+        "{\n"
+            + "  \"parentDependencyCount\": 1,\n"
+            + "  \"missingDependencies\": [\n"
+            + "    {\n"
+            + "      \"groupId\": \"com.\\\"quoted\\\"\",\n"
+            + "      \"artifactId\": \"back\\\\slash\",\n"
+            + "      \"version\": \"1.0\\u000a\\u0009\\u0000\\u001f\u007f\",\n"
+            + "      \"file\": \"lib.jar\",\n"
+            + "      \"potentialMatches\": []\n"
+            + "    }\n"
+            + "  ]\n"
+            + "}\n",
+        report.toJson());
+  }
+
+  @Test
+  public void testToJson_nullCoordinates() {
+    ParentDependencyReport report = new ParentDependencyReport(1);
+    report.addMissingDependency(
+        artifact, Paths.get("lib.jar"), Collections.singletonList(Paths.get("lib-2.jar")));
+
+    assertEquals(
+        "{\n"
+            + "  \"parentDependencyCount\": 1,\n"
+            + "  \"missingDependencies\": [\n"
+            + "    {\n"
+            + "      \"groupId\": null,\n"
+            + "      \"artifactId\": null,\n"
+            + "      \"version\": null,\n"
+            + "      \"file\": \"lib.jar\",\n"
+            + "      \"potentialMatches\": [\"lib-2.jar\"]\n"
+            + "    }\n"
+            + "  ]\n"
+            + "}\n",
+        report.toJson());
+  }
+}
@@ -24,20 +24,30 @@ import com.google.cloud.tools.jib.maven.extension.MavenData;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
-import java.nio.file.FileSystems;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
-import java.nio.file.Paths;
-import java.util.LinkedHashMap;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
 public class JibOwnershipExtension implements JibMavenPluginExtension<Configuration> {
 
-  private Map<PathMatcher, String> pathMatchers = new LinkedHashMap<>();
+  // Layers with fewer entries are processed by a single thread even in the parallel mode.
+  private static final int PARALLEL_ENTRIES_THRESHOLD = 2_000;
+
+  private static final int PARENT_DIRECTORY_CACHE_SIZE = 10_000;
+
+  // compiled globs of all rules and the ownership of each rule (in the configuration order)
+  private GlobMatcher ruleMatcher = GlobMatcher.compile(Collections.emptyList());
+  private List<String> ruleOwnerships = Collections.emptyList();
+  // (parent directory, index of the last matching rule) if the rules are determined by parent
+  // directories
+  private Optional<Cache<String, Integer>> parentDirectoryCache = Optional.empty();
 
   @Override
   public Optional<Class<Configuration>> getExtraConfigType() {
@@ -57,46 +67,110 @@ public class JibOwnershipExtension implements JibMavenPluginExtension<Configurat
       logger.log(LogLevel.WARN, "Nothing configured for Jib Ownership Extension");
       return buildPlan;
     }
+    int parallelism = getParallelism(properties);
 
+    List<String> globs = new ArrayList<>();
+    List<String> ownerships = new ArrayList<>();
     for (Configuration.Rule rule : config.get().getRules()) {
       if (rule.getGlob().isEmpty()) {
         throw new JibPluginExtensionException(
             getClass(), "glob pattern not given in ownership configuration");
       }
-      pathMatchers.put(
-          FileSystems.getDefault().getPathMatcher("glob:" + rule.getGlob()), rule.getOwnership());
+      globs.add(rule.getGlob());
+      ownerships.add(rule.getOwnership());
     }
+    ruleMatcher = GlobMatcher.compile(globs);
+    ruleOwnerships = ownerships;
+    parentDirectoryCache =
+        globs.stream().allMatch(GlobMatcher::isDeterminedByParentDirectory)
+            ? Optional.of(
+                CacheBuilder.newBuilder().maximumSize(PARENT_DIRECTORY_CACHE_SIZE).build())
+            : Optional.empty();
 
     @SuppressWarnings("unchecked")
     List<FileEntriesLayer> layers = (List<FileEntriesLayer>) buildPlan.getLayers();
     List<FileEntriesLayer> newLayers =
-        layers.stream().map(this::applyRulesToLayer).collect(Collectors.toList());
-    return buildPlan.toBuilder().setLayers(newLayers).build();
+        parallelism == 1
+            ? layers.stream()
+                .map(layer -> applyRulesToLayer(layer, false, logger))
+                .collect(Collectors.toList())
+            : applyRulesInParallel(layers, parallelism, logger);
+    return LayerTransforms.setLayers(buildPlan, newLayers);
+  }
+
+  private int getParallelism(Map<String, String> properties) throws JibPluginExtensionException {
+    String parallelism = properties.getOrDefault("parallelism", "1");
+    try {
+      int value = Integer.parseInt(parallelism);
+      if (value > 0) {
+        return value;
+      }
+    } catch (NumberFormatException ex) {
+      // reported below
+    }
+    throw new JibPluginExtensionException(
+        getClass(), "parallelism must be a positive integer, but got '" + parallelism + "'");
   }
 
-  private FileEntriesLayer applyRulesToLayer(FileEntriesLayer layer) {
-    List<FileEntry> entries =
-        layer.getEntries().stream().map(this::applyRulesToFileEntry).collect(Collectors.toList());
-    return layer.toBuilder().setEntries(entries).build();
+  private List<FileEntriesLayer> applyRulesInParallel(
+      List<FileEntriesLayer> layers, int parallelism, ExtensionLogger logger) {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      // Parallel streams started from a task in the pool run in that pool. Collecting an ordered
+      // stream keeps the original order of layers and entries, so the image digest is the same as
+      // when processed sequentially.
+      return pool.invoke(
+          ForkJoinTask.adapt(
+              () ->
+                  layers.parallelStream()
+                      .map(layer -> applyRulesToLayer(layer, true, logger))
+                      .collect(Collectors.toList())));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private FileEntriesLayer applyRulesToLayer(
+      FileEntriesLayer layer, boolean parallel, ExtensionLogger logger) {
+    if (!ruleMatcher.mayMatchPathsStartingWith(LayerTransforms.getCommonPathPrefix(layer))) {
+      logger.log(LogLevel.DEBUG, "Skipping layer '" + layer.getName() + "': no rule can match");
+      return layer;
+    }
+    boolean parallelEntries = parallel && layer.getEntries().size() >= PARALLEL_ENTRIES_THRESHOLD;
+    return LayerTransforms.mapEntries(layer, this::applyRulesToFileEntry, parallelEntries);
   }
 
   private FileEntry applyRulesToFileEntry(FileEntry entry) {
-    String newOwnership = null;
+    int ruleIndex = findLastMatchingRule(entry.getExtractionPath().toString());
+    if (ruleIndex < 0 || ruleOwnerships.get(ruleIndex).equals(entry.getOwnership())) {
+      return entry; // unchanged
+    }
+    return new FileEntry(
+        entry.getSourceFile(),
+        entry.getExtractionPath(),
+        entry.getPermissions(),
+        entry.getModificationTime(),
+        ruleOwnerships.get(ruleIndex));
+  }
 
-    for (Entry<PathMatcher, String> mapEntry : pathMatchers.entrySet()) {
-      PathMatcher matcher = mapEntry.getKey();
-      Path pathInContainer = Paths.get(entry.getExtractionPath().toString());
-      if (matcher.matches(pathInContainer)) {
-        newOwnership = mapEntry.getValue();
-      }
+  /**
+   * Finds the rule that applies to a path. The last matching rule in the configuration order wins.
+   *
+   * @param pathInContainer path of a file in the container
+   * @return index of the last matching rule, or {@code -1} if no rule matches
+   */
+  private int findLastMatchingRule(String pathInContainer) {
+    if (!parentDirectoryCache.isPresent()) {
+      return ruleMatcher.lastMatchIndex(pathInContainer);
+    }
+
+    // All files in the same directory match the same rules.
+    String parentDirectory = pathInContainer.substring(0, pathInContainer.lastIndexOf('/'));
+    Integer ruleIndex = parentDirectoryCache.get().getIfPresent(parentDirectory);
+    if (ruleIndex == null) {
+      ruleIndex = ruleMatcher.lastMatchIndex(pathInContainer);
+      parentDirectoryCache.get().put(parentDirectory, ruleIndex);
     }
-    return newOwnership == null
-        ? entry
-        : new FileEntry(
-            entry.getSourceFile(),
-            entry.getExtractionPath(),
-            entry.getPermissions(),
-            entry.getModificationTime(),
-            newOwnership);
+    return ruleIndex;
   }
 }
@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,7 +33,9 @@ import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -48,6 +51,8 @@ public class JibOwnershipExtensionTest {
   @Mock private Configuration config;
   @Mock private ExtensionLogger logger;
 
+  private final Map<String, String> properties = new HashMap<>();
+
   private static <T> List<T> mapLayerEntries(
       FileEntriesLayer layer, Function<FileEntry, T> mapper) {
     return layer.getEntries().stream().map(mapper).collect(Collectors.toList());
@@ -79,7 +84,7 @@ public class JibOwnershipExtensionTest {
 
     try {
       new JibOwnershipExtension()
-          .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+          .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
       fail();
     } catch (JibPluginExtensionException ex) {
       assertEquals(JibOwnershipExtension.class, ex.getExtensionClass());
@@ -116,7 +121,7 @@ public class JibOwnershipExtensionTest {
 
     ContainerBuildPlan newPlan =
         new JibOwnershipExtension()
-            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
 
     FileEntriesLayer newLayer1 = (FileEntriesLayer) newPlan.getLayers().get(0);
     FileEntriesLayer newLayer2 = (FileEntriesLayer) newPlan.getLayers().get(1);
@@ -148,6 +153,69 @@ public class JibOwnershipExtensionTest {
         mapLayerEntries(newLayer2, FileEntry::getOwnership));
   }
 
+  @Test
+  public void testExtendContainerBuildPlan_unchangedLayersKeptAsIs()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer1 =
+        FileEntriesLayer.builder()
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/target/file"))
+            .build();
+    FileEntriesLayer layer2 =
+        FileEntriesLayer.builder()
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/untouched/file"))
+            .build();
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().addLayer(layer1).addLayer(layer2).build();
+
+    Configuration.Rule rule = mockRule("/other/**", "10:20");
+    when(config.getRules()).thenReturn(Arrays.asList(rule));
+
+    ContainerBuildPlan newPlan =
+        new JibOwnershipExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+    assertSame(buildPlan, newPlan);
+
+    Configuration.Rule rule2 = mockRule("/target/**", "10:20");
+    when(config.getRules()).thenReturn(Arrays.asList(rule, rule2));
+
+    newPlan =
+        new JibOwnershipExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+    assertSame(layer2, newPlan.getLayers().get(1));
+    FileEntriesLayer newLayer1 = (FileEntriesLayer) newPlan.getLayers().get(0);
+    assertEquals(Arrays.asList("10:20"), mapLayerEntries(newLayer1, FileEntry::getOwnership));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_layersNoRuleCanMatchSkipped()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer1 =
+        FileEntriesLayer.builder()
+            .setName("classes")
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/classes/file"))
+            .build();
+    FileEntriesLayer layer2 =
+        FileEntriesLayer.builder()
+            .setName("resources")
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/resources/file"))
+            .build();
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().addLayer(layer1).addLayer(layer2).build();
+
+    Configuration.Rule rule = mockRule("/app/resources/**", "10:20");
+    when(config.getRules()).thenReturn(Arrays.asList(rule));
+
+    ContainerBuildPlan newPlan =
+        new JibOwnershipExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+
+    verify(logger).log(LogLevel.DEBUG, "Skipping layer 'classes': no rule can match");
+    verify(logger, never()).log(LogLevel.DEBUG, "Skipping layer 'resources': no rule can match");
+    assertSame(layer1, newPlan.getLayers().get(0));
+    FileEntriesLayer newLayer2 = (FileEntriesLayer) newPlan.getLayers().get(1);
+    assertEquals(Arrays.asList("10:20"), mapLayerEntries(newLayer2, FileEntry::getOwnership));
+  }
+
   @Test
   public void testExtendContainerBuildPlan_lastConfigWins() throws JibPluginExtensionException {
     FileEntriesLayer layer =
@@ -162,9 +230,119 @@ public class JibOwnershipExtensionTest {
 
     ContainerBuildPlan newPlan =
         new JibOwnershipExtension()
-            .extendContainerBuildPlan(buildPlan, null, Optional.of(config), null, logger);
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
 
     FileEntriesLayer newLayer = (FileEntriesLayer) newPlan.getLayers().get(0);
     assertEquals(Arrays.asList("999:777"), mapLayerEntries(newLayer, FileEntry::getOwnership));
   }
+
+  @Test
+  public void testExtendContainerBuildPlan_rulesDeterminedByParentDirectory()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer =
+        FileEntriesLayer.builder()
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/file"))
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/file"))
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/data/file"))
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/data/another"))
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/data/sub/file"))
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/data/sub/another"))
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/app/database/file"))
+            .build();
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    Configuration.Rule rule1 = mockRule("/app/data/**", "10:20");
+    Configuration.Rule rule2 = mockRule("/app/data/sub/*", "999:777");
+    when(config.getRules()).thenReturn(Arrays.asList(rule1, rule2));
+
+    ContainerBuildPlan newPlan =
+        new JibOwnershipExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+
+    FileEntriesLayer newLayer = (FileEntriesLayer) newPlan.getLayers().get(0);
+    assertEquals(
+        Arrays.asList("", "", "10:20", "10:20", "999:777", "999:777", ""),
+        mapLayerEntries(newLayer, FileEntry::getOwnership));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_rulesNotCarriedOver()
+      throws JibPluginExtensionException {
+    FileEntriesLayer layer =
+        FileEntriesLayer.builder()
+            .addEntry(Paths.get("whatever"), AbsoluteUnixPath.get("/target/file"))
+            .build();
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().addLayer(layer).build();
+
+    Configuration.Rule rule1 = mockRule("/target/**", "10:20");
+    Configuration.Rule rule2 = mockRule("/other/**", "999:777");
+    when(config.getRules()).thenReturn(Arrays.asList(rule1), Arrays.asList(rule2));
+
+    JibOwnershipExtension extension = new JibOwnershipExtension();
+    extension.extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+    ContainerBuildPlan newPlan =
+        extension.extendContainerBuildPlan(
+            buildPlan, properties, Optional.of(config), null, logger);
+
+    FileEntriesLayer newLayer = (FileEntriesLayer) newPlan.getLayers().get(0);
+    assertEquals(Arrays.asList(""), mapLayerEntries(newLayer, FileEntry::getOwnership));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_parallel() throws JibPluginExtensionException {
+    ContainerBuildPlan.Builder buildPlanBuilder = ContainerBuildPlan.builder();
+    for (int layerIndex = 0; layerIndex < 3; layerIndex++) {
+      FileEntriesLayer.Builder layerBuilder =
+          FileEntriesLayer.builder().setName("layer" + layerIndex);
+      for (int i = 0; i < 5000; i++) {
+        String directory = i % 2 == 0 ? "/target/" : "/untouched/";
+        layerBuilder.addEntry(Paths.get("whatever"), AbsoluteUnixPath.get(directory + i));
+      }
+      buildPlanBuilder.addLayer(layerBuilder.build());
+    }
+    ContainerBuildPlan buildPlan = buildPlanBuilder.build();
+
+    Configuration.Rule rule = mockRule("/target/**", "10:20");
+    when(config.getRules()).thenReturn(Arrays.asList(rule));
+
+    ContainerBuildPlan sequentialPlan =
+        new JibOwnershipExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+    properties.put("parallelism", "4");
+    ContainerBuildPlan parallelPlan =
+        new JibOwnershipExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+
+    assertEquals(3, parallelPlan.getLayers().size());
+    for (int layerIndex = 0; layerIndex < 3; layerIndex++) {
+      FileEntriesLayer sequentialLayer =
+          (FileEntriesLayer) sequentialPlan.getLayers().get(layerIndex);
+      FileEntriesLayer parallelLayer = (FileEntriesLayer) parallelPlan.getLayers().get(layerIndex);
+      assertEquals(sequentialLayer.getName(), parallelLayer.getName());
+      assertEquals(
+          mapLayerEntries(sequentialLayer, FileEntry::getExtractionPath),
+          mapLayerEntries(parallelLayer, FileEntry::getExtractionPath));
+      assertEquals(
+          mapLayerEntries(sequentialLayer, FileEntry::getOwnership),
+          mapLayerEntries(parallelLayer, FileEntry::getOwnership));
+    }
+    FileEntriesLayer firstLayer = (FileEntriesLayer) parallelPlan.getLayers().get(0);
+    assertEquals("10:20", firstLayer.getEntries().get(0).getOwnership());
+    assertEquals("", firstLayer.getEntries().get(1).getOwnership());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_invalidParallelism() {
+    ContainerBuildPlan buildPlan = ContainerBuildPlan.builder().build();
+    properties.put("parallelism", "0");
+
+    try {
+      new JibOwnershipExtension()
+          .extendContainerBuildPlan(buildPlan, properties, Optional.of(config), null, logger);
+      fail();
+    } catch (JibPluginExtensionException ex) {
+      assertEquals(JibOwnershipExtension.class, ex.getExtensionClass());
+      assertEquals("parallelism must be a positive integer, but got '0'", ex.getMessage());
+    }
+  }
 }
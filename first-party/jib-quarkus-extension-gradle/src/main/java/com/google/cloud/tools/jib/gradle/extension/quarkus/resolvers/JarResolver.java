@@ -41,6 +41,15 @@ public interface JarResolver {
    */
   List<Path> getPathsToDependencies(Project project);
 
+  /**
+   * Retrieves a list of directories with artifacts generated by the Quarkus build, which change on
+   * every build and therefore go into their own layer.
+   *
+   * @param project Gradle project for which this extension is run
+   * @return list of paths to generated artifacts
+   */
+  List<Path> getPathsToGeneratedArtifacts(Project project);
+
   /**
    * Retrieves a path where jar will be located in the container.
    *
@@ -48,7 +48,12 @@ public class FastJarResolver implements JarResolver {
   public List<Path> getPathsToDependencies(Project project) {
     return Arrays.asList(
         project.getBuildDir().toPath().resolve("quarkus-app/lib/main"),
-        project.getBuildDir().toPath().resolve("quarkus-app/lib/boot"),
+        project.getBuildDir().toPath().resolve("quarkus-app/lib/boot"));
+  }
+
+  @Override
+  public List<Path> getPathsToGeneratedArtifacts(Project project) {
+    return Arrays.asList(
         project.getBuildDir().toPath().resolve("quarkus-app/app"),
         project.getBuildDir().toPath().resolve("quarkus-app/quarkus"));
   }
@@ -50,6 +50,11 @@ public class LegacyJarResolver implements JarResolver {
     return Collections.singletonList(project.getBuildDir().toPath().resolve("lib"));
   }
 
+  @Override
+  public List<Path> getPathsToGeneratedArtifacts(Project project) {
+    return Collections.emptyList();
+  }
+
   @Override
   public AbsoluteUnixPath getPathToJarInContainer(AbsoluteUnixPath appRoot) {
     return appRoot.resolve("app.jar");
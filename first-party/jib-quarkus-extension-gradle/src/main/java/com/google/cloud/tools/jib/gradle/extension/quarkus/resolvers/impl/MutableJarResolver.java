@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.gradle.extension.quarkus.resolvers.impl;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.Project;
+
+/**
+ * Resolver for the mutable-jar package type, which has the fast-jar layout plus the deployment
+ * dependencies in {@code quarkus-app/lib/deployment} needed for remote development.
+ */
+public class MutableJarResolver extends FastJarResolver {
+
+  @Override
+  public List<Path> getPathsToDependencies(Project project) {
+    List<Path> dependencies = new ArrayList<>(super.getPathsToDependencies(project));
+    dependencies.add(project.getBuildDir().toPath().resolve("quarkus-app/lib/deployment"));
+    return dependencies;
+  }
+}
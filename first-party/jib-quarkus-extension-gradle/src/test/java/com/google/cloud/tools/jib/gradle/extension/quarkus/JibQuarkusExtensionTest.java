@@ -19,15 +19,21 @@ package com.google.cloud.tools.jib.gradle.extension.quarkus;
 import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
 import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
 import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.FileEntry;
+import com.google.cloud.tools.jib.api.buildplan.FilePermissions;
+import com.google.cloud.tools.jib.api.buildplan.LayerObject;
 import com.google.cloud.tools.jib.gradle.JibExtension;
 import com.google.cloud.tools.jib.gradle.extension.GradleData;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
+import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
 import com.google.common.collect.Sets;
 import java.io.File;
@@ -35,17 +41,27 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.ResolvedArtifact;
 import org.gradle.api.plugins.ExtensionContainer;
 import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.SourceSetOutput;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.jvm.tasks.Jar;
 import org.junit.Before;
@@ -80,6 +96,9 @@ public class JibQuarkusExtensionTest {
   @Mock(answer = Answers.RETURNS_DEEP_STUBS)
   private JibExtension jibPlugin;
 
+  @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+  private SourceSetContainer sourceSets;
+
   private GradleData gradleData = () -> project;
 
   private final Map<String, String> properties = new HashMap<>();
@@ -139,6 +158,23 @@ public class JibQuarkusExtensionTest {
         newPlan.getEntrypoint());
   }
 
+  @Test
+  public void testExtendContainerBuildPlan_configuredEntrypoint()
+      throws JibPluginExtensionException, IOException {
+    createLegacyJar();
+    when(jibPlugin.getContainer().getEntrypoint())
+        .thenReturn(Arrays.asList("/bin/sh", "-c", "/entrypoint.sh"));
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().setEntrypoint(Arrays.asList("set by Jib")).build();
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.empty(), gradleData, logger);
+
+    assertEquals(Arrays.asList("set by Jib"), newPlan.getEntrypoint());
+    assertEquals("quarkus jar", newPlan.getLayers().get(newPlan.getLayers().size() - 1).getName());
+  }
+
   @Test
   public void testExtendContainerBuildPlan_emptyAppRoot()
       throws JibPluginExtensionException, IOException {
@@ -187,11 +223,11 @@ public class JibQuarkusExtensionTest {
     ContainerBuildPlan newPlan =
         new JibQuarkusExtension()
             .extendContainerBuildPlan(buildPlan, properties, Optional.empty(), gradleData, logger);
-    assertEquals(7, newPlan.getLayers().size());
-    FileEntriesLayer lastLayer = (FileEntriesLayer) newPlan.getLayers().get(6);
+    assertEquals(6, newPlan.getLayers().size());
+    FileEntriesLayer jarLayer = (FileEntriesLayer) newPlan.getLayers().get(4);
     assertEquals(
         Collections.singletonList("/app/quarkus-app/quarkus-run.jar"),
-        layerToExtractionPaths(lastLayer));
+        layerToExtractionPaths(jarLayer));
   }
 
   @Test
@@ -282,7 +318,7 @@ public class JibQuarkusExtensionTest {
         new JibQuarkusExtension()
             .extendContainerBuildPlan(buildPlan, properties, Optional.empty(), gradleData, logger);
 
-    assertEquals(9, newPlan.getLayers().size());
+    assertEquals(8, newPlan.getLayers().size());
     FileEntriesLayer layer1 = (FileEntriesLayer) newPlan.getLayers().get(0);
     FileEntriesLayer layer2 = (FileEntriesLayer) newPlan.getLayers().get(1);
     FileEntriesLayer layer3 = (FileEntriesLayer) newPlan.getLayers().get(2);
@@ -291,17 +327,15 @@ public class JibQuarkusExtensionTest {
     FileEntriesLayer layer6 = (FileEntriesLayer) newPlan.getLayers().get(5);
     FileEntriesLayer layer7 = (FileEntriesLayer) newPlan.getLayers().get(6);
     FileEntriesLayer layer8 = (FileEntriesLayer) newPlan.getLayers().get(7);
-    FileEntriesLayer layer9 = (FileEntriesLayer) newPlan.getLayers().get(8);
 
     assertEquals("dependencies", layer1.getName());
     assertEquals("snapshot dependencies", layer2.getName());
     assertEquals("project dependencies", layer3.getName());
     assertEquals("dependencies", layer4.getName());
-    assertEquals("snapshot dependencies", layer5.getName());
-    assertEquals("dependencies", layer6.getName());
-    assertEquals("quarkus jar", layer7.getName());
+    assertEquals("quarkus jar", layer5.getName());
+    assertEquals("quarkus generated", layer6.getName());
+    assertEquals("extra files", layer7.getName());
     assertEquals("extra files", layer8.getName());
-    assertEquals("extra files", layer9.getName());
 
     assertEquals(
         Collections.singletonList(
@@ -320,16 +354,383 @@ public class JibQuarkusExtensionTest {
             "/new/appRoot/quarkus-app/lib/boot/io.quarkus.quarkus-bootstrap-runner.jar"),
         layerToExtractionPaths(layer4));
     assertEquals(
-        Collections.singletonList("/new/appRoot/quarkus-app/app/my-app-runner-SNAPSHOT.jar"),
+        Collections.singletonList("/new/appRoot/quarkus-app/quarkus-run.jar"),
         layerToExtractionPaths(layer5));
     assertEquals(
-        Collections.singletonList("/new/appRoot/quarkus-app/quarkus/generated-bytecode.jar"),
+        Arrays.asList(
+            "/new/appRoot/quarkus-app/app/my-app-runner-SNAPSHOT.jar",
+            "/new/appRoot/quarkus-app/quarkus/generated-bytecode.jar"),
         layerToExtractionPaths(layer6));
+    assertEquals(extraLayer1.getEntries(), layer7.getEntries());
+    assertEquals(extraLayer2.getEntries(), layer8.getEntries());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_fastJarNestedDirectories()
+      throws JibPluginExtensionException, IOException {
+    createFastJar();
+    Path quarkusDir = tempFolder.getRoot().toPath().resolve("build/quarkus-app/quarkus");
+    Path nestedDir = Files.createDirectories(quarkusDir.resolve("nested/dir"));
+    Files.createFile(nestedDir.resolve("b.dat"));
+    Files.createFile(nestedDir.resolve("a.dat"));
+    Files.createFile(quarkusDir.resolve("quarkus-application.dat"));
+    properties.put("packageType", "fast-jar");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    FileEntriesLayer quarkusLayer = (FileEntriesLayer) newPlan.getLayers().get(5);
+    assertEquals("quarkus generated", quarkusLayer.getName());
     assertEquals(
-        Collections.singletonList("/new/appRoot/quarkus-app/quarkus-run.jar"),
-        layerToExtractionPaths(layer7));
-    assertEquals(extraLayer1.getEntries(), layer8.getEntries());
-    assertEquals(extraLayer2.getEntries(), layer9.getEntries());
+        Arrays.asList(
+            "/new/appRoot/quarkus-app/app/my-app-runner-SNAPSHOT.jar",
+            "/new/appRoot/quarkus-app/quarkus/generated-bytecode.jar",
+            "/new/appRoot/quarkus-app/quarkus/nested/dir/a.dat",
+            "/new/appRoot/quarkus-app/quarkus/nested/dir/b.dat",
+            "/new/appRoot/quarkus-app/quarkus/quarkus-application.dat"),
+        layerToExtractionPaths(quarkusLayer));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_fastJarNestedDependencyDirectories()
+      throws JibPluginExtensionException, IOException {
+    createFastJar();
+    Path nestedDir =
+        Files.createDirectories(
+            tempFolder.getRoot().toPath().resolve("build/quarkus-app/lib/main/nested"));
+    Files.createFile(nestedDir.resolve("com.example.nested-artifact.jar"));
+    Files.createFile(nestedDir.resolve("com.example.nested-SNAPSHOT.jar"));
+    properties.put("packageType", "fast-jar");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    // classified by file name, the same as the files directly in lib/main
+    FileEntriesLayer dependencies = (FileEntriesLayer) newPlan.getLayers().get(0);
+    FileEntriesLayer snapshotDependencies = (FileEntriesLayer) newPlan.getLayers().get(1);
+    assertEquals("dependencies", dependencies.getName());
+    assertEquals("snapshot dependencies", snapshotDependencies.getName());
+    assertEquals(
+        Arrays.asList(
+            "/new/appRoot/quarkus-app/lib/main/com.example.third-party-artifact.jar",
+            "/new/appRoot/quarkus-app/lib/main/nested/com.example.nested-artifact.jar"),
+        layerToExtractionPaths(dependencies));
+    assertEquals(
+        Arrays.asList(
+            "/new/appRoot/quarkus-app/lib/main/com.example.third-party-SNAPSHOT-artifact.jar",
+            "/new/appRoot/quarkus-app/lib/main/nested/com.example.nested-SNAPSHOT.jar"),
+        layerToExtractionPaths(snapshotDependencies));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_dependencyGroupingByGroupId()
+      throws JibPluginExtensionException, IOException {
+    createLegacyJar();
+    Path libDir = tempFolder.getRoot().toPath().resolve("build/lib");
+    Files.createFile(libDir.resolve("io.quarkus.quarkus-core.jar"));
+    Files.createFile(libDir.resolve("io.quarkus.arc.arc.jar"));
+    Files.createFile(libDir.resolve("io.quarkusx.other.jar"));
+    properties.put("dependencyGrouping", "groupId");
+    properties.put("dependencyGroups", "io.quarkus, org.jboss");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    assertEquals(5, newPlan.getLayers().size());
+    FileEntriesLayer dependencies = (FileEntriesLayer) newPlan.getLayers().get(0);
+    FileEntriesLayer quarkusDependencies = (FileEntriesLayer) newPlan.getLayers().get(1);
+    assertEquals("dependencies", dependencies.getName());
+    assertEquals("dependencies (io.quarkus)", quarkusDependencies.getName());
+    assertEquals("snapshot dependencies", newPlan.getLayers().get(2).getName());
+    assertEquals("project dependencies", newPlan.getLayers().get(3).getName());
+    assertEquals(
+        Arrays.asList(
+            "/new/appRoot/lib/com.example.third-party-artifact.jar",
+            "/new/appRoot/lib/io.quarkusx.other.jar"),
+        layerToExtractionPaths(dependencies));
+    assertEquals(
+        Arrays.asList(
+            "/new/appRoot/lib/io.quarkus.arc.arc.jar",
+            "/new/appRoot/lib/io.quarkus.quarkus-core.jar"),
+        layerToExtractionPaths(quarkusDependencies));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_dependencyGroupingBySize()
+      throws JibPluginExtensionException, IOException {
+    createLegacyJar();
+    Path libDir = tempFolder.getRoot().toPath().resolve("build/lib");
+    Files.write(libDir.resolve("com.example.medium.jar"), new byte[2 * 1024 * 1024]);
+    properties.put("dependencyGrouping", "size");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    assertEquals(5, newPlan.getLayers().size());
+    FileEntriesLayer small = (FileEntriesLayer) newPlan.getLayers().get(0);
+    FileEntriesLayer medium = (FileEntriesLayer) newPlan.getLayers().get(1);
+    assertEquals("dependencies (small)", small.getName());
+    assertEquals("dependencies (medium)", medium.getName());
+    assertEquals(
+        Collections.singletonList("/new/appRoot/lib/com.example.third-party-artifact.jar"),
+        layerToExtractionPaths(small));
+    assertEquals(
+        Collections.singletonList("/new/appRoot/lib/com.example.medium.jar"),
+        layerToExtractionPaths(medium));
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_mutableJarLayers()
+      throws JibPluginExtensionException, IOException {
+    createFastJar();
+    Path deploymentDir =
+        Files.createDirectory(
+            tempFolder.getRoot().toPath().resolve("build/quarkus-app/lib/deployment"));
+    Files.createFile(deploymentDir.resolve("io.quarkus.quarkus-core-deployment.jar"));
+    properties.put("packageType", "mutable-jar");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    assertEquals(7, newPlan.getLayers().size());
+    FileEntriesLayer deploymentDependencies = (FileEntriesLayer) newPlan.getLayers().get(4);
+    assertEquals("dependencies", deploymentDependencies.getName());
+    assertEquals(
+        Collections.singletonList(
+            "/new/appRoot/quarkus-app/lib/deployment/io.quarkus.quarkus-core-deployment.jar"),
+        layerToExtractionPaths(deploymentDependencies));
+    assertEquals("quarkus jar", newPlan.getLayers().get(5).getName());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_appCdsArchive()
+      throws JibPluginExtensionException, IOException {
+    createFastJar();
+    Files.createFile(tempFolder.getRoot().toPath().resolve("build/quarkus-app/app-cds.jsa"));
+    properties.put("packageType", "fast-jar");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    assertEquals(7, newPlan.getLayers().size());
+    FileEntriesLayer appCdsLayer = (FileEntriesLayer) newPlan.getLayers().get(6);
+    assertEquals("quarkus app-cds", appCdsLayer.getName());
+    assertEquals(
+        Collections.singletonList("/new/appRoot/quarkus-app/app-cds.jsa"),
+        layerToExtractionPaths(appCdsLayer));
+    assertEquals(
+        Arrays.asList(
+            "java",
+            "-XX:SharedArchiveFile=/new/appRoot/quarkus-app/app-cds.jsa",
+            "-Xshare:auto",
+            "-verbose:gc",
+            "-Dmy.property=value",
+            "-jar",
+            "/new/appRoot/quarkus-app/quarkus-run.jar"),
+        newPlan.getEntrypoint());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_appCdsArchiveKeepsModificationTimes()
+      throws JibPluginExtensionException, IOException {
+    createFastJar();
+    Path quarkusAppDir = tempFolder.getRoot().toPath().resolve("build/quarkus-app");
+    Files.createFile(quarkusAppDir.resolve("app-cds.jsa"));
+    Instant modificationTime = Instant.parse("2021-06-01T12:00:00Z");
+    try (Stream<Path> files = Files.walk(quarkusAppDir)) {
+      for (Path file : files.filter(Files::isRegularFile).collect(Collectors.toList())) {
+        Files.setLastModifiedTime(file, FileTime.from(modificationTime));
+      }
+    }
+    properties.put("packageType", "fast-jar");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    // The JVM rejects the archive if the class path JARs have other modification times.
+    Set<String> classPathFiles =
+        Sets.newHashSet(
+            "/new/appRoot/quarkus-app/quarkus-run.jar",
+            "/new/appRoot/quarkus-app/lib/boot/io.quarkus.quarkus-bootstrap-runner.jar");
+    assertEquals(7, newPlan.getLayers().size());
+    for (LayerObject layer : newPlan.getLayers()) {
+      for (FileEntry entry : ((FileEntriesLayer) layer).getEntries()) {
+        assertEquals(
+            classPathFiles.contains(entry.getExtractionPath().toString())
+                ? modificationTime
+                : FileEntriesLayer.DEFAULT_MODIFICATION_TIME,
+            entry.getModificationTime());
+      }
+    }
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_appCdsArchiveIgnoredForLegacyJar()
+      throws JibPluginExtensionException, IOException {
+    createLegacyJar();
+    Files.createFile(tempFolder.getRoot().toPath().resolve("build/app-cds.jsa"));
+    properties.put("packageType", "legacy-jar");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    for (LayerObject layer : newPlan.getLayers()) {
+      assertNotEquals("quarkus app-cds", layer.getName());
+    }
+    assertEquals(
+        Arrays.asList("java", "-verbose:gc", "-Dmy.property=value", "-jar", "/new/appRoot/app.jar"),
+        newPlan.getEntrypoint());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_explodedUberJarLayers()
+      throws JibPluginExtensionException, IOException {
+    createUberJar();
+    properties.put("packageType", "uber-jar");
+    properties.put("explodeUberJar", "true");
+    properties.put("dependencyGrouping", "groupId");
+    properties.put("dependencyGroups", "io.quarkus");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(
+                ContainerBuildPlan.builder().build(),
+                properties,
+                Optional.empty(),
+                gradleData,
+                logger);
+
+    assertEquals(3, newPlan.getLayers().size());
+    FileEntriesLayer dependencies = (FileEntriesLayer) newPlan.getLayers().get(0);
+    FileEntriesLayer quarkusDependencies = (FileEntriesLayer) newPlan.getLayers().get(1);
+    FileEntriesLayer classes = (FileEntriesLayer) newPlan.getLayers().get(2);
+    assertEquals("dependencies", dependencies.getName());
+    assertEquals("dependencies (io.quarkus)", quarkusDependencies.getName());
+    assertEquals("classes", classes.getName());
+    assertEquals(
+        Arrays.asList(
+            "/new/appRoot/app/META-INF/MANIFEST.MF", "/new/appRoot/app/org/other/Library.class"),
+        layerToExtractionPaths(dependencies));
+    assertEquals(
+        Collections.singletonList("/new/appRoot/app/io/quarkus/runner/GeneratedMain.class"),
+        layerToExtractionPaths(quarkusDependencies));
+    assertEquals(
+        Collections.singletonList("/new/appRoot/app/com/example/App.class"),
+        layerToExtractionPaths(classes));
+    assertEquals(
+        Arrays.asList(
+            "java",
+            "-verbose:gc",
+            "-Dmy.property=value",
+            "-cp",
+            "/new/appRoot/app",
+            "io.quarkus.runner.GeneratedMain"),
+        newPlan.getEntrypoint());
+  }
+
+  @Test
+  public void testExtendContainerBuildPlan_nativeExecutable()
+      throws JibPluginExtensionException, IOException {
+    Path buildDir = tempFolder.newFolder("build").toPath();
+    Files.createFile(buildDir.resolve("my-app-runner"));
+    when(project.getBuildDir()).thenReturn(buildDir.toFile());
+    FileEntriesLayer extraLayer =
+        buildLayer("extra files", Collections.singletonList("/extra/files/1"));
+    ContainerBuildPlan buildPlan =
+        ContainerBuildPlan.builder().setLayers(Collections.singletonList(extraLayer)).build();
+    properties.put("packageType", "native");
+
+    ContainerBuildPlan newPlan =
+        new JibQuarkusExtension()
+            .extendContainerBuildPlan(buildPlan, properties, Optional.empty(), gradleData, logger);
+
+    assertEquals(2, newPlan.getLayers().size());
+    FileEntriesLayer nativeLayer = (FileEntriesLayer) newPlan.getLayers().get(0);
+    assertEquals("quarkus native executable", nativeLayer.getName());
+    assertEquals(1, nativeLayer.getEntries().size());
+    FileEntry executable = nativeLayer.getEntries().get(0);
+    assertEquals(AbsoluteUnixPath.get("/new/appRoot/application"), executable.getExtractionPath());
+    assertEquals(FilePermissions.fromOctalString("755"), executable.getPermissions());
+    assertEquals("extra files", newPlan.getLayers().get(1).getName());
+    assertEquals(
+        Arrays.asList("/new/appRoot/application", "-Dmy.property=value"),
+        newPlan.getEntrypoint());
+    verify(logger).log(LogLevel.WARN, "Ignoring JVM flag '-verbose:gc' for the native executable");
+  }
+
+  @Test
+  public void testClassify() {
+    Set<String> projectFilenames = Sets.newHashSet("sub-module-artifact.jar", "module.jar");
+
+    assertEquals(
+        JibQuarkusExtension.DependencyType.PROJECT,
+        JibQuarkusExtension.classify(
+            Paths.get("lib/com.example.sub-module-artifact.jar"), projectFilenames));
+    assertEquals(
+        JibQuarkusExtension.DependencyType.PROJECT,
+        JibQuarkusExtension.classify(Paths.get("lib/module.jar"), projectFilenames));
+    assertEquals(
+        JibQuarkusExtension.DependencyType.PROJECT,
+        JibQuarkusExtension.classify(
+            Paths.get("lib/com.example.module-SNAPSHOT.jar"),
+            Sets.newHashSet("module-SNAPSHOT.jar")));
+    // Only whole artifact names after the group ID count, not arbitrary suffixes.
+    assertEquals(
+        JibQuarkusExtension.DependencyType.THIRD_PARTY,
+        JibQuarkusExtension.classify(
+            Paths.get("lib/com.example.other-module.jar"), projectFilenames));
+    assertEquals(
+        JibQuarkusExtension.DependencyType.SNAPSHOT,
+        JibQuarkusExtension.classify(
+            Paths.get("lib/com.example.other-module-SNAPSHOT.jar"), projectFilenames));
   }
 
   private void createLegacyJar() throws IOException {
@@ -352,7 +753,13 @@ public class JibQuarkusExtensionTest {
     Path quarkusAppLibDir = Files.createDirectory(quarkusAppDir.resolve("app"));
     Path quarkusQuarkusDir = Files.createDirectory(quarkusAppDir.resolve("quarkus"));
 
-    Files.createFile(quarkusAppDir.resolve("quarkus-run.jar"));
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest
+        .getMainAttributes()
+        .put(Attributes.Name.CLASS_PATH, "lib/boot/io.quarkus.quarkus-bootstrap-runner.jar");
+    new JarOutputStream(Files.newOutputStream(quarkusAppDir.resolve("quarkus-run.jar")), manifest)
+        .close();
     Files.createFile(quarkusLibBootDir.resolve("io.quarkus.quarkus-bootstrap-runner.jar"));
     Files.createFile(quarkusLibMainDir.resolve("com.example.sub-module-artifact.jar"));
     Files.createFile(quarkusLibMainDir.resolve("com.example.third-party-artifact.jar"));
@@ -362,4 +769,33 @@ public class JibQuarkusExtensionTest {
 
     when(project.getBuildDir()).thenReturn(buildDir.toFile());
   }
+
+  private void createUberJar() throws IOException {
+    Path buildDir = tempFolder.newFolder("build").toPath();
+    Path classesDir = Files.createDirectories(buildDir.resolve("classes/java/main/com/example"));
+    Files.createFile(classesDir.resolve("App.class"));
+
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "io.quarkus.runner.GeneratedMain");
+    try (JarOutputStream jarOutputStream =
+        new JarOutputStream(
+            Files.newOutputStream(buildDir.resolve("my-app-runner.jar")), manifest)) {
+      for (String entry :
+          Arrays.asList(
+              "com/example/App.class",
+              "io/quarkus/runner/GeneratedMain.class",
+              "org/other/Library.class")) {
+        jarOutputStream.putNextEntry(new JarEntry(entry));
+        jarOutputStream.closeEntry();
+      }
+    }
+
+    when(project.getBuildDir()).thenReturn(buildDir.toFile());
+    when(extensionContainer.getByType(SourceSetContainer.class)).thenReturn(sourceSets);
+    SourceSetOutput output = sourceSets.getByName("main").getOutput();
+    when(output.getClassesDirs().getFiles())
+        .thenReturn(Collections.singleton(buildDir.resolve("classes/java/main").toFile()));
+    when(output.getResourcesDir()).thenReturn(buildDir.resolve("resources/main").toFile());
+  }
 }
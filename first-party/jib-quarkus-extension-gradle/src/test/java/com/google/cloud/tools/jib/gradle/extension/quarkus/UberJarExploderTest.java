@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.gradle.extension.quarkus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests for {@link UberJarExploder}. */
+public class UberJarExploderTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path createJar(Map<String, String> entries, boolean multiRelease) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "com.example.App");
+    if (multiRelease) {
+      manifest.getMainAttributes().putValue("Multi-Release", "true");
+    }
+    Path jar = tempFolder.getRoot().toPath().resolve("my-app-runner.jar");
+    try (OutputStream outputStream = Files.newOutputStream(jar);
+        JarOutputStream jarOutputStream = new JarOutputStream(outputStream, manifest)) {
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        jarOutputStream.putNextEntry(new JarEntry(entry.getKey()));
+        jarOutputStream.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        jarOutputStream.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  private static String read(Path file) throws IOException {
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testExplode_replacesPreviousContents()
+      throws IOException, JibPluginExtensionException {
+    Path jar = createJar(Collections.singletonMap("com/example/App.class", "app"), false);
+    Path destination = tempFolder.newFolder("exploded").toPath();
+    Files.createDirectories(destination.resolve("com/example"));
+    Files.write(destination.resolve("com/example/App.class"), Arrays.asList("stale"));
+    Files.write(destination.resolve("Removed.class"), Arrays.asList("stale"));
+
+    // also when run again on its own output
+    for (int i = 0; i < 2; i++) {
+      assertEquals("com.example.App", UberJarExploder.explode(jar, destination));
+      assertEquals("app", read(destination.resolve("com/example/App.class")));
+      assertFalse(Files.exists(destination.resolve("Removed.class")));
+    }
+  }
+
+  @Test
+  public void testExplode_samePathExtractedOnce() throws IOException, JibPluginExtensionException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put("com/example/App.class", "first");
+    entries.put("com/example/./App.class", "second");
+    Path jar = createJar(entries, false);
+    Path destination = tempFolder.getRoot().toPath().resolve("exploded");
+
+    UberJarExploder.explode(jar, destination);
+
+    assertEquals("first", read(destination.resolve("com/example/App.class")));
+  }
+
+  @Test
+  public void testExplode_multiReleaseJarWithVersionedClasses() throws IOException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put("com/example/App.class", "app");
+    entries.put("META-INF/versions/11/com/example/App.class", "app for Java 11");
+    Path jar = createJar(entries, true);
+    Path destination = tempFolder.getRoot().toPath().resolve("exploded");
+
+    JibPluginExtensionException ex =
+        assertThrows(
+            JibPluginExtensionException.class, () -> UberJarExploder.explode(jar, destination));
+    assertEquals(
+        jar
+            + " is a multi-release JAR with classes in META-INF/versions, which would be ignored "
+            + "once extracted; do not set explodeUberJar for this application",
+        ex.getMessage());
+  }
+
+  @Test
+  public void testExplode_multiReleaseJarWithOnlyModuleInfo()
+      throws IOException, JibPluginExtensionException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put("com/example/App.class", "app");
+    entries.put("META-INF/versions/9/module-info.class", "module");
+    Path jar = createJar(entries, true);
+    Path destination = tempFolder.getRoot().toPath().resolve("exploded");
+
+    assertEquals("com.example.App", UberJarExploder.explode(jar, destination));
+    assertEquals("app", read(destination.resolve("com/example/App.class")));
+  }
+
+  @Test
+  public void testExplode_versionedClassesWithoutMultiRelease()
+      throws IOException, JibPluginExtensionException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put("META-INF/versions/11/com/example/App.class", "app for Java 11");
+    Path jar = createJar(entries, false);
+    Path destination = tempFolder.getRoot().toPath().resolve("exploded");
+
+    // not a multi-release JAR, so the JVM would ignore the versioned classes anyway
+    assertEquals("com.example.App", UberJarExploder.explode(jar, destination));
+  }
+}
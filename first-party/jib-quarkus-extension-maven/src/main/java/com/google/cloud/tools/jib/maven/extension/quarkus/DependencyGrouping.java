@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.quarkus;
+
+import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.util.Arrays;
+import java.util.Optional;
+
+/** How third-party dependencies are split into several "dependencies" layers. */
+public enum DependencyGrouping {
+  /** All third-party dependencies go into one layer. */
+  NONE("none"),
+  /** Dependencies whose group ID starts with one of the configured prefixes get their own layer. */
+  GROUP_ID("groupId"),
+  /** Dependencies are put into small, medium and large layers by their file size. */
+  SIZE("size");
+
+  private final String name;
+
+  DependencyGrouping(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Retrieves dependency grouping by the config property value.
+   *
+   * @param name name of the dependency grouping
+   * @return enum of the dependency grouping
+   * @throws JibPluginExtensionException if there is an unknown dependency grouping value given to
+   *     the extension config
+   */
+  public static DependencyGrouping getDependencyGroupingByName(String name)
+      throws JibPluginExtensionException {
+    Optional<DependencyGrouping> groupingEnum =
+        Arrays.stream(values()).filter(el -> name.equals(el.name)).findFirst();
+    if (groupingEnum.isPresent()) {
+      return groupingEnum.get();
+    }
+    throw new JibPluginExtensionException(
+        JibQuarkusExtension.class,
+        "Unknown dependencyGrouping, possible values: none, groupId, size");
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.quarkus;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Jib container settings of a Maven project. Each setting is resolved with the same precedence as
+ * the Jib Maven plugin: system properties, Maven user properties, project properties and then the
+ * {@code <container>} configuration of the plugin.
+ */
+class JibContainerConfiguration {
+
+  private static final String JIB_MAVEN_PLUGIN = "com.google.cloud.tools:jib-maven-plugin";
+
+  @Nullable private final String appRoot;
+  private final List<String> jvmFlags;
+  private final List<String> entrypoint;
+  @Nullable private final String mainClass;
+
+  private JibContainerConfiguration(
+      @Nullable String appRoot,
+      List<String> jvmFlags,
+      List<String> entrypoint,
+      @Nullable String mainClass) {
+    this.appRoot = appRoot;
+    this.jvmFlags = jvmFlags;
+    this.entrypoint = entrypoint;
+    this.mainClass = mainClass;
+  }
+
+  /**
+   * Resolves the container settings of a project.
+   *
+   * @param project the Maven project
+   * @param session the Maven session
+   * @return the resolved container settings
+   */
+  static JibContainerConfiguration resolve(MavenProject project, MavenSession session) {
+    List<Properties> propertiesByPrecedence =
+        Arrays.asList(
+            session.getSystemProperties(), session.getUserProperties(), project.getProperties());
+    Xpp3Dom containerDom = getContainerDom(project);
+
+    return new JibContainerConfiguration(
+        getValue("appRoot", propertiesByPrecedence, containerDom),
+        getList("jvmFlags", propertiesByPrecedence, containerDom),
+        getList("entrypoint", propertiesByPrecedence, containerDom),
+        getValue("mainClass", propertiesByPrecedence, containerDom));
+  }
+
+  Optional<String> getAppRoot() {
+    return Optional.ofNullable(appRoot).filter(value -> !value.isEmpty());
+  }
+
+  List<String> getJvmFlags() {
+    return jvmFlags;
+  }
+
+  /** Returns the entrypoint set by the user, or an empty list if Jib should pick one. */
+  List<String> getEntrypoint() {
+    return entrypoint;
+  }
+
+  Optional<String> getMainClass() {
+    return Optional.ofNullable(mainClass).filter(value -> !value.isEmpty());
+  }
+
+  /**
+   * Splits a list property on commas, exactly like Jib's {@code
+   * ConfigurationPropertyValidator.parseListProperty}: a backslash escapes the next character from
+   * splitting, and both are kept in the item (e.g., {@code a\,b} is the single item {@code a\,b}).
+   *
+   * @param property the property value
+   * @return the items of the list
+   */
+  @VisibleForTesting
+  static List<String> parseListProperty(String property) {
+    List<String> items = new ArrayList<>();
+    int startIndex = 0;
+    for (int endIndex = 0; endIndex < property.length(); endIndex++) {
+      if (property.charAt(endIndex) == ',') {
+        // Split on non-escaped comma
+        items.add(property.substring(startIndex, endIndex));
+        startIndex = endIndex + 1;
+      } else if (property.charAt(endIndex) == '\\') {
+        // Found a backslash, ignore next character
+        endIndex++;
+      }
+    }
+    items.add(property.substring(startIndex));
+    return items;
+  }
+
+  @Nullable
+  private static Xpp3Dom getContainerDom(MavenProject project) {
+    Plugin jibPlugin = project.getPlugin(JIB_MAVEN_PLUGIN);
+    if (jibPlugin == null) {
+      return null;
+    }
+    Xpp3Dom configurationDom = (Xpp3Dom) jibPlugin.getConfiguration();
+    return configurationDom == null ? null : configurationDom.getChild("container");
+  }
+
+  @Nullable
+  private static String getProperty(String name, List<Properties> propertiesByPrecedence) {
+    for (Properties properties : propertiesByPrecedence) {
+      String value = properties.getProperty("jib.container." + name);
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private static String getValue(
+      String name, List<Properties> propertiesByPrecedence, @Nullable Xpp3Dom containerDom) {
+    String property = getProperty(name, propertiesByPrecedence);
+    if (property != null) {
+      return property;
+    }
+    Xpp3Dom dom = containerDom == null ? null : containerDom.getChild(name);
+    return dom == null ? null : dom.getValue();
+  }
+
+  private static List<String> getList(
+      String name, List<Properties> propertiesByPrecedence, @Nullable Xpp3Dom containerDom) {
+    String property = getProperty(name, propertiesByPrecedence);
+    if (property != null) {
+      return parseListProperty(property);
+    }
+    Xpp3Dom dom = containerDom == null ? null : containerDom.getChild(name);
+    if (dom == null) {
+      return Collections.emptyList();
+    }
+    // Either a list of child elements or, as with <entrypoint>INHERIT</entrypoint>, a plain value
+    if (dom.getChildCount() > 0) {
+      return Arrays.stream(dom.getChildren()).map(Xpp3Dom::getValue).collect(Collectors.toList());
+    }
+    return dom.getValue() == null ? Collections.emptyList() : parseListProperty(dom.getValue());
+  }
+}
@@ -20,6 +20,7 @@ import com.google.cloud.tools.jib.api.JavaContainerBuilder;
 import com.google.cloud.tools.jib.api.buildplan.AbsoluteUnixPath;
 import com.google.cloud.tools.jib.api.buildplan.ContainerBuildPlan;
 import com.google.cloud.tools.jib.api.buildplan.FileEntriesLayer;
+import com.google.cloud.tools.jib.api.buildplan.FilePermissions;
 import com.google.cloud.tools.jib.maven.extension.JibMavenPluginExtension;
 import com.google.cloud.tools.jib.maven.extension.MavenData;
 import com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.JarResolver;
@@ -28,36 +29,77 @@ import com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.impl.LegacyJ
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger;
 import com.google.cloud.tools.jib.plugins.extension.ExtensionLogger.LogLevel;
 import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Verify;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.execution.MavenSession;
-import org.apache.maven.model.Plugin;
 import org.apache.maven.project.MavenProject;
-import org.codehaus.plexus.util.xml.Xpp3Dom;
 
 public class JibQuarkusExtension implements JibMavenPluginExtension<Void> {
 
+  private static final String DEFAULT_DEPENDENCY_GROUPS = "io.quarkus,io.vertx,io.netty,org.jboss";
+  private static final String APP_CDS_ARCHIVE = "app-cds.jsa";
+  private static final long SMALL_DEPENDENCY_SIZE = 1024 * 1024;
+  private static final long LARGE_DEPENDENCY_SIZE = 10 * 1024 * 1024;
+
   private AbsoluteUnixPath appRoot = AbsoluteUnixPath.get("/app");
   private List<String> jvmFlags = Collections.emptyList();
+  private List<String> configuredEntrypoint = Collections.emptyList();
+  private Optional<String> configuredMainClass = Optional.empty();
+  // the runner JAR and its class path, whose modification times the AppCDS archive checks
+  private Set<Path> filesWithModificationTimes = Collections.emptySet();
+
+  @VisibleForTesting
+  enum DependencyType {
+    THIRD_PARTY("dependencies"),
+    SNAPSHOT("snapshot dependencies"),
+    PROJECT("project dependencies");
+
+    private final String layerName;
+
+    DependencyType(String layerName) {
+      this.layerName = layerName;
+    }
+  }
 
   private JarResolver jarResolver = new LegacyJarResolver();
   private PackageType packageType = PackageType.LEGACY;
+  private DependencyGrouping dependencyGrouping = DependencyGrouping.NONE;
+  private List<String> dependencyGroups = Collections.emptyList();
+
+  // (Maven session, (project, container settings)) map to resolve the settings of a project only
+  // once per Maven session (e.g., for several Jib goals or executions)
+  private final Map<MavenSession, Map<MavenProject, JibContainerConfiguration>>
+      containerConfigurations = Collections.synchronizedMap(new WeakHashMap<>());
 
   @Override
   public Optional<Class<Void>> getExtraConfigType() {
@@ -77,39 +119,116 @@ public class JibQuarkusExtension implements JibMavenPluginExtension<Void> {
 
       packageType =
           PackageType.getPackageTypeByName(properties.getOrDefault("packageType", "legacy-jar"));
+      dependencyGrouping =
+          DependencyGrouping.getDependencyGroupingByName(
+              properties.getOrDefault("dependencyGrouping", "none"));
+      dependencyGroups =
+          Arrays.stream(
+                  properties.getOrDefault("dependencyGroups", DEFAULT_DEPENDENCY_GROUPS).split(","))
+              .map(String::trim)
+              .filter(prefix -> !prefix.isEmpty())
+              .distinct()
+              .collect(Collectors.toList());
+      boolean explodeUberJar =
+          packageType == PackageType.UBER
+              && Boolean.parseBoolean(properties.getOrDefault("explodeUberJar", "false"));
 
-      readJibConfigurations(mavenData.getMavenProject());
+      readJibConfigurations(mavenData.getMavenProject(), mavenData.getMavenSession());
 
       Path jar = jarResolver.getPathToLocalJar(mavenData.getMavenProject());
+      // AppCDS archive of the application, if Quarkus created one next to the runner JAR
+      Path appCdsArchive = jar.resolveSibling(APP_CDS_ARCHIVE);
+      // Only the fast-jar and mutable-jar keep the runner JAR at the path in the container that
+      // the archive was created with; legacy-jar and uber-jar rename it to <appRoot>/app.jar.
+      boolean useAppCdsArchive =
+          (packageType == PackageType.FAST || packageType == PackageType.MUTABLE)
+              && Files.isRegularFile(appCdsArchive);
+      filesWithModificationTimes =
+          useAppCdsArchive ? getClassPathFiles(jar) : Collections.emptySet();
 
       ContainerBuildPlan.Builder planBuilder = buildPlan.toBuilder();
       planBuilder.setLayers(Collections.emptyList());
 
-      // Dependency layers
-      for (Path path : jarResolver.getPathsToDependencies(mavenData.getMavenProject())) {
-        addDependencyLayers(
-            mavenData.getMavenProject(), mavenData.getMavenSession(), planBuilder, path);
+      List<String> entrypoint = new ArrayList<>();
+      FileEntriesLayer appCdsLayer = null;
+      if (packageType == PackageType.NATIVE) {
+        // The native executable is self-contained, so there are no dependency layers.
+        AbsoluteUnixPath executable = jarResolver.getPathToJarInContainer(appRoot);
+        planBuilder.addLayer(
+            FileEntriesLayer.builder()
+                .setName("quarkus native executable")
+                .addEntry(jar, executable, FilePermissions.fromOctalString("755"))
+                .build());
+        entrypoint.add(executable.toString());
+        entrypoint.addAll(getNativeArguments(logger));
+      } else {
+        // Dependency layers
+        Set<String> projectArtifactFilenames =
+            getProjectArtifactFilenames(mavenData.getMavenSession());
+        for (Path path : jarResolver.getPathsToDependencies(mavenData.getMavenProject())) {
+          addDependencyLayers(
+              mavenData.getMavenProject(), planBuilder, path, projectArtifactFilenames);
+        }
+
+        entrypoint.add("java");
+
+        if (useAppCdsArchive) {
+          AbsoluteUnixPath appCdsArchiveInContainer =
+              appRoot.resolve(getPathInBuildDirectory(mavenData.getMavenProject(), appCdsArchive));
+          FileEntriesLayer.Builder appCdsLayerBuilder =
+              FileEntriesLayer.builder().setName("quarkus app-cds");
+          addEntry(appCdsLayerBuilder, appCdsArchive, appCdsArchiveInContainer);
+          appCdsLayer = appCdsLayerBuilder.build();
+          // -Xshare:auto falls back to running without the archive if it does not match the JVM
+          // or the class path.
+          if (jvmFlags.stream().noneMatch(flag -> flag.startsWith("-XX:SharedArchiveFile="))) {
+            entrypoint.add("-XX:SharedArchiveFile=" + appCdsArchiveInContainer);
+            entrypoint.add("-Xshare:auto");
+          }
+        }
+        entrypoint.addAll(jvmFlags);
+
+        // Quarkus runner JAR layer, or the layers of the extracted uber-jar
+        if (explodeUberJar) {
+          AbsoluteUnixPath explodedJarRoot = appRoot.resolve("app");
+          String manifestMainClass =
+              addExplodedUberJarLayers(
+                  mavenData.getMavenProject(), planBuilder, jar, explodedJarRoot);
+          entrypoint.addAll(
+              Arrays.asList(
+                  "-cp",
+                  explodedJarRoot.toString(),
+                  configuredMainClass.orElse(manifestMainClass)));
+        } else {
+          AbsoluteUnixPath appRootJar = jarResolver.getPathToJarInContainer(appRoot);
+          FileEntriesLayer.Builder jarLayerBuilder =
+              FileEntriesLayer.builder().setName("quarkus jar");
+          addEntry(jarLayerBuilder, jar, appRootJar);
+          planBuilder.addLayer(jarLayerBuilder.build());
+          entrypoint.addAll(Arrays.asList("-jar", appRootJar.toString()));
+        }
       }
 
-      // Quarkus runner JAR layer
-      AbsoluteUnixPath appRootJar = jarResolver.getPathToJarInContainer(appRoot);
-      FileEntriesLayer jarLayer =
-          FileEntriesLayer.builder().setName("quarkus jar").addEntry(jar, appRootJar).build();
-      planBuilder.addLayer(jarLayer);
+      // Generated and augmented artifacts (including the application JAR in quarkus-app/app)
+      // change on every build, so they go above the dependency layers.
+      addGeneratedArtifactsLayer(mavenData.getMavenProject(), planBuilder);
 
-      // Preserve extra directories layers.
+      // The AppCDS archive is regenerated along with the application.
+      if (appCdsLayer != null) {
+        planBuilder.addLayer(appCdsLayer);
+      }
+
+      // Preserve extra directories layers. They go last, so that they can override any
+      // application file, as in the build plans of Jib itself.
       String extraFilesLayerName = JavaContainerBuilder.LayerType.EXTRA_FILES.getName();
       buildPlan.getLayers().stream()
           .filter(layer -> layer.getName().startsWith(extraFilesLayerName))
           .forEach(planBuilder::addLayer);
 
-      // set entrypoint
-      List<String> entrypoint = new ArrayList<>();
-      entrypoint.add("java");
-      entrypoint.addAll(jvmFlags);
-      entrypoint.add("-jar");
-      entrypoint.add(appRootJar.toString());
-      planBuilder.setEntrypoint(entrypoint);
+      // Jib already put a user-configured entrypoint into the build plan.
+      if (configuredEntrypoint.isEmpty()) {
+        planBuilder.setEntrypoint(entrypoint);
+      }
 
       return planBuilder.build();
 
@@ -118,91 +237,337 @@ public class JibQuarkusExtension implements JibMavenPluginExtension<Void> {
     }
   }
 
+  /**
+   * Native executables accept system properties but none of the other JVM flags, so only {@code
+   * -D} flags are passed on.
+   */
+  private List<String> getNativeArguments(ExtensionLogger logger) {
+    List<String> arguments = new ArrayList<>();
+    for (String flag : jvmFlags) {
+      if (flag.startsWith("-D")) {
+        arguments.add(flag);
+      } else {
+        logger.log(LogLevel.WARN, "Ignoring JVM flag '" + flag + "' for the native executable");
+      }
+    }
+    return arguments;
+  }
+
+  private static Set<String> getProjectArtifactFilenames(MavenSession session) {
+    // Collect all artifact files involved in this Maven session.
+    return session.getProjects().stream()
+        .map(MavenProject::getArtifact)
+        .map(Artifact::getFile)
+        .filter(Objects::nonNull) // excludes root POM project
+        .map(File::getName)
+        .collect(Collectors.toSet());
+  }
+
   private void addDependencyLayers(
       MavenProject project,
-      MavenSession session,
       ContainerBuildPlan.Builder planBuilder,
-      Path libDirectory)
+      Path libDirectory,
+      Set<String> projectArtifactFilenames)
       throws IOException {
-    // Collect all artifact files involved in this Maven session.
-    Set<String> projectArtifactFilenames =
-        session.getProjects().stream()
-            .map(MavenProject::getArtifact)
-            .map(Artifact::getFile)
-            .filter(Objects::nonNull) // excludes root POM project
-            .map(File::getName)
-            .collect(Collectors.toSet());
-
-    Predicate<Path> isProjectDependency =
-        path ->
-            projectArtifactFilenames.stream()
-                // endsWith: Quarkus prepends group ID to the augmented JARs in target/lib.
-                .anyMatch(jarFilename -> path.getFileName().toString().endsWith(jarFilename));
-    Predicate<Path> isSnapshot =
-        path ->
-            path.getFileName().toString().contains("SNAPSHOT") && !isProjectDependency.test(path);
-    Predicate<Path> isThirdParty = isProjectDependency.negate().and(isSnapshot.negate());
-
-    addDependencyLayer(project, planBuilder, libDirectory, "dependencies", isThirdParty);
-    addDependencyLayer(project, planBuilder, libDirectory, "snapshot dependencies", isSnapshot);
-    addDependencyLayer(
-        project, planBuilder, libDirectory, "project dependencies", isProjectDependency);
-  }
-
-  private void addDependencyLayer(
-      MavenProject project,
+    String relativePathInLib = getPathInBuildDirectory(project, libDirectory);
+
+    // Walk the directory once, partitioning the files into the dependency layers. Files are kept
+    // sorted by their path for a deterministic layer order.
+    Map<DependencyType, SortedMap<String, Path>> layerFiles = new EnumMap<>(DependencyType.class);
+    for (DependencyType type : DependencyType.values()) {
+      layerFiles.put(type, new TreeMap<>());
+    }
+    walkFiles(
+        libDirectory,
+        (pathInLib, file) ->
+            Verify.verifyNotNull(layerFiles.get(classify(file, projectArtifactFilenames)))
+                .put(pathInLib, file));
+
+    for (Map.Entry<DependencyType, SortedMap<String, Path>> entry : layerFiles.entrySet()) {
+      Map<String, SortedMap<String, Path>> layers =
+          entry.getKey() == DependencyType.THIRD_PARTY
+              ? groupThirdPartyDependencies(entry.getValue())
+              : Collections.singletonMap(entry.getKey().layerName, entry.getValue());
+      addLayers(planBuilder, layers, appRoot.resolve(relativePathInLib));
+    }
+  }
+
+  /**
+   * Adds a layer for each non-empty group of files.
+   *
+   * @param planBuilder the build plan to add the layers to
+   * @param layers layer names mapped to files, keyed by their paths relative to {@code root}
+   * @param root the directory in the container the paths are relative to
+   */
+  private void addLayers(
       ContainerBuildPlan.Builder planBuilder,
-      Path libDirectory,
-      String layerName,
-      Predicate<Path> predicate)
+      Map<String, SortedMap<String, Path>> layers,
+      AbsoluteUnixPath root)
       throws IOException {
-    FileEntriesLayer.Builder layerBuilder = FileEntriesLayer.builder().setName(layerName);
-
-    String relativePathInLib =
-        Paths.get(project.getBuild().getDirectory())
-            .toUri()
-            .relativize(libDirectory.toUri())
-            .toString();
-
-    try (Stream<Path> files = Files.list(libDirectory)) {
-      files
-          .filter(predicate)
-          .forEach(
-              path -> {
-                layerBuilder.addEntry(
-                    path,
-                    appRoot.resolve(relativePathInLib).resolve(path.getFileName().toString()));
-              });
-    }
-
-    FileEntriesLayer layer = layerBuilder.build();
-    if (!layer.getEntries().isEmpty()) {
-      planBuilder.addLayer(layer);
-    }
-  }
-
-  // TODO: also check system and Maven properties (e.g., -Djib.container.appRoot).
-  private void readJibConfigurations(MavenProject project) {
-    Plugin jibPlugin = project.getPlugin("com.google.cloud.tools:jib-maven-plugin");
-    if (jibPlugin != null) {
-      jarResolver = new JarResolverFactory().getJarResolver(packageType);
-      Xpp3Dom configurationDom = (Xpp3Dom) jibPlugin.getConfiguration();
-      if (configurationDom != null) {
-        Xpp3Dom containerDom = configurationDom.getChild("container");
-        if (containerDom != null) {
-          Xpp3Dom appRootDom = containerDom.getChild("appRoot");
-          if (appRootDom != null) {
-            appRoot = AbsoluteUnixPath.get(appRootDom.getValue());
-          }
-          Xpp3Dom jvmFlagsDom = containerDom.getChild("jvmFlags");
-          if (jvmFlagsDom != null) {
-            jvmFlags =
-                Arrays.asList(jvmFlagsDom.getChildren()).stream()
-                    .map(Xpp3Dom::getValue)
-                    .collect(Collectors.toList());
+    for (Map.Entry<String, SortedMap<String, Path>> layer : layers.entrySet()) {
+      if (layer.getValue().isEmpty()) {
+        continue;
+      }
+      FileEntriesLayer.Builder layerBuilder = FileEntriesLayer.builder().setName(layer.getKey());
+      for (Map.Entry<String, Path> file : layer.getValue().entrySet()) {
+        addEntry(layerBuilder, file.getValue(), root.resolve(file.getKey()));
+      }
+      planBuilder.addLayer(layerBuilder.build());
+    }
+  }
+
+  /**
+   * Adds a file to a layer. Jib sets the modification time of every file to the epoch plus one
+   * second, but the JVM only accepts an AppCDS archive if the JARs on the class path have the same
+   * size and modification time as when the archive was created. Hence, these JARs keep their
+   * modification time when the image uses an archive. All other files keep the fixed time, so that
+   * their layers stay reproducible.
+   */
+  private void addEntry(
+      FileEntriesLayer.Builder layerBuilder, Path file, AbsoluteUnixPath pathInContainer)
+      throws IOException {
+    if (filesWithModificationTimes.contains(file.toAbsolutePath().normalize())) {
+      layerBuilder.addEntry(file, pathInContainer, Files.getLastModifiedTime(file).toInstant());
+    } else {
+      layerBuilder.addEntry(file, pathInContainer);
+    }
+  }
+
+  /**
+   * Returns the runner JAR and the JARs on the {@code Class-Path} of its manifest, which are the
+   * JARs the JVM checks an AppCDS archive against. Quarkus loads the other JARs itself.
+   */
+  private static Set<Path> getClassPathFiles(Path jar) throws IOException {
+    Set<Path> files = new HashSet<>();
+    files.add(jar.toAbsolutePath().normalize());
+    try (JarFile jarFile = new JarFile(jar.toFile())) {
+      Manifest manifest = jarFile.getManifest();
+      String classPath =
+          manifest == null
+              ? null
+              : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+      if (classPath != null && !classPath.trim().isEmpty()) {
+        URI jarDirectory = jar.toAbsolutePath().getParent().toUri();
+        for (String entry : classPath.trim().split("\\s+")) {
+          files.add(Paths.get(jarDirectory.resolve(entry)).normalize());
+        }
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Extracts the uber-jar and splits its contents into a "classes" layer for the classes and
+   * resources of the project itself and dependency layers for everything else.
+   *
+   * @return the main class of the uber-jar
+   */
+  private String addExplodedUberJarLayers(
+      MavenProject project,
+      ContainerBuildPlan.Builder planBuilder,
+      Path jar,
+      AbsoluteUnixPath explodedJarRoot)
+      throws IOException, JibPluginExtensionException {
+    Path explodedJar = Paths.get(project.getBuild().getDirectory()).resolve("jib-quarkus-uber-jar");
+    String mainClass = UberJarExploder.explode(jar, explodedJar);
+
+    Set<String> projectFiles = new HashSet<>();
+    for (Path directory : getProjectOutputDirectories(project)) {
+      if (Files.isDirectory(directory)) {
+        walkFiles(directory, (path, file) -> projectFiles.add(path));
+      }
+    }
+
+    String layerName = DependencyType.THIRD_PARTY.layerName;
+    Map<String, SortedMap<String, Path>> layers = new LinkedHashMap<>();
+    layers.put(layerName, new TreeMap<>());
+    if (dependencyGrouping == DependencyGrouping.GROUP_ID) {
+      for (String prefix : dependencyGroups) {
+        layers.put(layerName + " (" + prefix + ")", new TreeMap<>());
+      }
+    }
+    layers.put("classes", new TreeMap<>());
+    walkFiles(
+        explodedJar,
+        (pathInJar, file) -> {
+          String name = layerName;
+          if (projectFiles.contains(pathInJar)) {
+            name = "classes";
+          } else if (dependencyGrouping == DependencyGrouping.GROUP_ID) {
+            name = getGroupLayerName(pathInJar, '/');
           }
+          Verify.verifyNotNull(layers.get(name)).put(pathInJar, file);
+        });
+
+    addLayers(planBuilder, layers, explodedJarRoot);
+    return mainClass;
+  }
+
+  /**
+   * Splits third-party dependencies into several layers according to {@code dependencyGrouping}.
+   * The returned map iterates the layers in a fixed order, independent of the files present.
+   *
+   * @param files third-party dependencies, keyed by their paths in the lib directory
+   * @return layer names mapped to the files in each layer
+   * @throws IOException if reading the size of a file fails
+   */
+  private Map<String, SortedMap<String, Path>> groupThirdPartyDependencies(
+      SortedMap<String, Path> files) throws IOException {
+    String layerName = DependencyType.THIRD_PARTY.layerName;
+    Map<String, SortedMap<String, Path>> layers = new LinkedHashMap<>();
+    switch (dependencyGrouping) {
+      case GROUP_ID:
+        layers.put(layerName, new TreeMap<>());
+        for (String prefix : dependencyGroups) {
+          layers.put(layerName + " (" + prefix + ")", new TreeMap<>());
+        }
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+          String fileName = file.getValue().getFileName().toString();
+          Verify.verifyNotNull(layers.get(getGroupLayerName(fileName, '.')))
+              .put(file.getKey(), file.getValue());
         }
+        return layers;
+
+      case SIZE:
+        layers.put(layerName + " (small)", new TreeMap<>());
+        layers.put(layerName + " (medium)", new TreeMap<>());
+        layers.put(layerName + " (large)", new TreeMap<>());
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+          long size = Files.size(file.getValue());
+          String sizeBin =
+              size < SMALL_DEPENDENCY_SIZE
+                  ? " (small)"
+                  : size < LARGE_DEPENDENCY_SIZE ? " (medium)" : " (large)";
+          Verify.verifyNotNull(layers.get(layerName + sizeBin)).put(file.getKey(), file.getValue());
+        }
+        return layers;
+
+      default:
+        return Collections.singletonMap(layerName, files);
+    }
+  }
+
+  /**
+   * Quarkus prepends the group ID to the JARs in {@code lib/}, so the longest configured group ID
+   * prefix followed by a dot decides the layer of a third-party dependency. For the contents of an
+   * extracted uber-jar, the prefix is matched against package directories instead.
+   *
+   * @param name a JAR file name, or a path in an uber-jar
+   * @param separator {@code '.'} for file names and {@code '/'} for paths in an uber-jar
+   * @return the name of the layer
+   */
+  private String getGroupLayerName(String name, char separator) {
+    String longestPrefix = "";
+    for (String prefix : dependencyGroups) {
+      if (prefix.length() > longestPrefix.length()
+          && name.startsWith(prefix.replace('.', separator) + separator)) {
+        longestPrefix = prefix;
       }
     }
+    String layerName = DependencyType.THIRD_PARTY.layerName;
+    return longestPrefix.isEmpty() ? layerName : layerName + " (" + longestPrefix + ")";
+  }
+
+  private void addGeneratedArtifactsLayer(
+      MavenProject project, ContainerBuildPlan.Builder planBuilder) throws IOException {
+    SortedMap<String, Path> generatedFiles = new TreeMap<>();
+    for (Path directory : jarResolver.getPathsToGeneratedArtifacts(project)) {
+      AbsoluteUnixPath directoryInContainer =
+          appRoot.resolve(getPathInBuildDirectory(project, directory));
+      walkFiles(
+          directory,
+          (pathInDirectory, file) ->
+              generatedFiles.put(directoryInContainer.resolve(pathInDirectory).toString(), file));
+    }
+
+    if (!generatedFiles.isEmpty()) {
+      FileEntriesLayer.Builder layerBuilder =
+          FileEntriesLayer.builder().setName("quarkus generated");
+      for (Map.Entry<String, Path> file : generatedFiles.entrySet()) {
+        addEntry(layerBuilder, file.getValue(), AbsoluteUnixPath.get(file.getKey()));
+      }
+      planBuilder.addLayer(layerBuilder.build());
+    }
+  }
+
+  private static List<Path> getProjectOutputDirectories(MavenProject project) {
+    return Collections.singletonList(Paths.get(project.getBuild().getOutputDirectory()));
+  }
+
+  private static String getPathInBuildDirectory(MavenProject project, Path directory) {
+    return Paths.get(project.getBuild().getDirectory())
+        .toUri()
+        .relativize(directory.toUri())
+        .toString();
+  }
+
+  /**
+   * Walks all files under a directory, passing each file along with its Unix-style path relative to
+   * the directory to {@code consumer}. Unlike a {@link java.nio.file.DirectoryStream}, this also
+   * descends into subdirectories; where the platform supports it (e.g., Windows), the file
+   * attributes come with the directory listing rather than from one call per file.
+   */
+  private static void walkFiles(Path directory, BiConsumer<String, Path> consumer)
+      throws IOException {
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            String relativePath = directory.relativize(file).toString();
+            consumer.accept(relativePath.replace(File.separatorChar, '/'), file);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  @VisibleForTesting
+  static DependencyType classify(Path path, Set<String> projectArtifactFilenames) {
+    String fileName = path.getFileName().toString();
+    if (isProjectArtifact(fileName, projectArtifactFilenames)) {
+      return DependencyType.PROJECT;
+    }
+    return fileName.contains("SNAPSHOT") ? DependencyType.SNAPSHOT : DependencyType.THIRD_PARTY;
+  }
+
+  /**
+   * Quarkus prepends the group ID to the augmented JARs in {@code lib/} (e.g., {@code
+   * com.example.my-module.jar}), so this looks up the file name itself and every suffix following a
+   * dot. Each lookup is a hash set probe, independent of the number of project artifacts.
+   */
+  private static boolean isProjectArtifact(String fileName, Set<String> projectArtifactFilenames) {
+    int start = 0;
+    while (true) {
+      if (projectArtifactFilenames.contains(fileName.substring(start))) {
+        return true;
+      }
+      int dot = fileName.indexOf('.', start);
+      if (dot < 0) {
+        return false;
+      }
+      start = dot + 1;
+    }
+  }
+
+  private void readJibConfigurations(MavenProject project, MavenSession session) {
+    jarResolver = new JarResolverFactory().getJarResolver(packageType);
+    JibContainerConfiguration containerConfiguration = getContainerConfiguration(project, session);
+    containerConfiguration
+        .getAppRoot()
+        .ifPresent(appRootValue -> appRoot = AbsoluteUnixPath.get(appRootValue));
+    jvmFlags = containerConfiguration.getJvmFlags();
+    configuredEntrypoint = containerConfiguration.getEntrypoint();
+    configuredMainClass = containerConfiguration.getMainClass();
+  }
+
+  /**
+   * Resolves the container settings of a project only once per Maven session, since the properties
+   * and the plugin configuration do not change during a session.
+   */
+  @VisibleForTesting
+  JibContainerConfiguration getContainerConfiguration(MavenProject project, MavenSession session) {
+    return containerConfigurations
+        .computeIfAbsent(session, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(project, key -> JibContainerConfiguration.resolve(project, session));
   }
 }
@@ -22,7 +22,10 @@ import java.util.Optional;
 
 public enum PackageType {
   LEGACY("legacy-jar"),
-  FAST("fast-jar");
+  FAST("fast-jar"),
+  MUTABLE("mutable-jar"),
+  UBER("uber-jar"),
+  NATIVE("native");
 
   private final String name;
 
@@ -45,6 +48,8 @@ public enum PackageType {
       return packageTypeEnum.get();
     }
     throw new JibPluginExtensionException(
-        JibQuarkusExtension.class, "Unknown packageType, possible values: legacy-jar, fast-jar");
+        JibQuarkusExtension.class,
+        "Unknown packageType, possible values: legacy-jar, fast-jar, mutable-jar, uber-jar, "
+            + "native");
   }
 }
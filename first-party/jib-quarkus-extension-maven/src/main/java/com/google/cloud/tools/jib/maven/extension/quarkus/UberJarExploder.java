@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.quarkus;
+
+import com.google.cloud.tools.jib.plugins.extension.JibPluginExtensionException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/** Extracts a Quarkus uber-jar so that its contents can be split into several layers. */
+class UberJarExploder {
+
+  private UberJarExploder() {}
+
+  /**
+   * Extracts all entries of a JAR into a directory, replacing any previous contents of the
+   * directory. If several entries extract to the same path (e.g., duplicate entries written by some
+   * shading tools), only the first is extracted.
+   *
+   * @param jar the JAR to extract
+   * @param destination the directory to extract into
+   * @return the main class declared in the JAR manifest
+   * @throws IOException if reading the JAR or writing the extracted files fails
+   * @throws JibPluginExtensionException if the JAR manifest declares no main class, or if the JAR
+   *     is a multi-release JAR with versioned classes
+   */
+  static String explode(Path jar, Path destination)
+      throws IOException, JibPluginExtensionException {
+    deleteRecursively(destination);
+    Files.createDirectories(destination);
+
+    try (JarFile jarFile = new JarFile(jar.toFile())) {
+      Manifest manifest = jarFile.getManifest();
+      Attributes mainAttributes =
+          manifest == null ? new Attributes() : manifest.getMainAttributes();
+      String mainClass = mainAttributes.getValue(Attributes.Name.MAIN_CLASS);
+      if (mainClass == null) {
+        throw new JibPluginExtensionException(
+            JibQuarkusExtension.class, jar + " has no Main-Class in its manifest");
+      }
+      // The JVM only picks versioned classes from a JAR, not from a directory on the class path.
+      boolean multiRelease = Boolean.parseBoolean(mainAttributes.getValue("Multi-Release"));
+      if (multiRelease && jarFile.stream().anyMatch(UberJarExploder::isVersionedClass)) {
+        throw new JibPluginExtensionException(
+            JibQuarkusExtension.class,
+            jar
+                + " is a multi-release JAR with classes in META-INF/versions, which would be "
+                + "ignored once extracted; do not set explodeUberJar for this application");
+      }
+
+      Set<Path> extractedFiles = new HashSet<>();
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        JarEntry entry = entries.nextElement();
+        Path target = destination.resolve(entry.getName()).normalize();
+        if (!target.startsWith(destination)) {
+          throw new IOException("Blocked unzipping files outside destination: " + entry.getName());
+        }
+        if (entry.isDirectory()) {
+          Files.createDirectories(target);
+          continue;
+        }
+        // JarFile reads entries by name, so duplicates of a name would read the same data anyway.
+        if (!extractedFiles.add(target)) {
+          continue;
+        }
+        Files.createDirectories(target.getParent());
+        try (InputStream inputStream = jarFile.getInputStream(entry)) {
+          Files.copy(inputStream, target);
+        }
+      }
+      return mainClass;
+    }
+  }
+
+  private static boolean isVersionedClass(JarEntry entry) {
+    String name = entry.getName();
+    return name.startsWith("META-INF/versions/")
+        && name.endsWith(".class")
+        && !name.endsWith("/module-info.class");
+  }
+
+  private static void deleteRecursively(Path directory) throws IOException {
+    if (!Files.exists(directory)) {
+      return;
+    }
+    Files.walkFileTree(
+        directory,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+              throws IOException {
+            Files.delete(file);
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(Path dir, IOException exception)
+              throws IOException {
+            if (exception != null) {
+              throw exception;
+            }
+            Files.delete(dir);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+}
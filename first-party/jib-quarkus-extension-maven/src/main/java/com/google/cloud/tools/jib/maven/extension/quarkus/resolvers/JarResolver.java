@@ -41,6 +41,15 @@ public interface JarResolver {
    */
   List<Path> getPathsToDependencies(MavenProject project);
 
+  /**
+   * Retrieves a list of directories with artifacts generated by the Quarkus build, which change on
+   * every build and therefore go into their own layer.
+   *
+   * @param project Maven project for which this extension is run
+   * @return list of paths to generated artifacts
+   */
+  List<Path> getPathsToGeneratedArtifacts(MavenProject project);
+
   /**
    * Retrieves a path where jar will be located in the container.
    *
@@ -19,6 +19,9 @@ package com.google.cloud.tools.jib.maven.extension.quarkus.resolvers;
 import com.google.cloud.tools.jib.maven.extension.quarkus.PackageType;
 import com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.impl.FastJarResolver;
 import com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.impl.LegacyJarResolver;
+import com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.impl.MutableJarResolver;
+import com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.impl.NativeResolver;
+import com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.impl.UberJarResolver;
 
 public class JarResolverFactory {
 
@@ -34,9 +37,16 @@ public class JarResolverFactory {
         return new LegacyJarResolver();
       case FAST:
         return new FastJarResolver();
+      case MUTABLE:
+        return new MutableJarResolver();
+      case UBER:
+        return new UberJarResolver();
+      case NATIVE:
+        return new NativeResolver();
       default:
         throw new IllegalArgumentException(
-            "Unable to determine the packaging type. Please ensure that it is either legacy-jar or fast-jar.");
+            "Unable to determine the packaging type. Please ensure that it is one of legacy-jar, "
+                + "fast-jar, mutable-jar, uber-jar or native.");
     }
   }
 }
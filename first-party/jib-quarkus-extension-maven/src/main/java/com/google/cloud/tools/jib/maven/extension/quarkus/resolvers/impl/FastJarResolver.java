@@ -51,10 +51,14 @@ public class FastJarResolver implements JarResolver {
   public List<Path> getPathsToDependencies(MavenProject project) {
     Path outputPath = Paths.get(project.getBuild().getDirectory());
     return Arrays.asList(
-        outputPath.resolve("quarkus-app/lib/main"),
-        outputPath.resolve("quarkus-app/lib/boot"),
-        outputPath.resolve("quarkus-app/app"),
-        outputPath.resolve("quarkus-app/quarkus"));
+        outputPath.resolve("quarkus-app/lib/main"), outputPath.resolve("quarkus-app/lib/boot"));
+  }
+
+  @Override
+  public List<Path> getPathsToGeneratedArtifacts(MavenProject project) {
+    Path outputPath = Paths.get(project.getBuild().getDirectory());
+    return Arrays.asList(
+        outputPath.resolve("quarkus-app/app"), outputPath.resolve("quarkus-app/quarkus"));
   }
 
   @Override
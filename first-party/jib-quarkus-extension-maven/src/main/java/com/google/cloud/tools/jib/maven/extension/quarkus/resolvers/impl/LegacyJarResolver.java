@@ -51,6 +51,11 @@ public class LegacyJarResolver implements JarResolver {
     return Collections.singletonList(Paths.get(project.getBuild().getDirectory()).resolve("lib"));
   }
 
+  @Override
+  public List<Path> getPathsToGeneratedArtifacts(MavenProject project) {
+    return Collections.emptyList();
+  }
+
   @Override
   public AbsoluteUnixPath getPathToJarInContainer(AbsoluteUnixPath appRoot) {
     return appRoot.resolve("app.jar");
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.quarkus.resolvers.impl;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Resolver for the uber-jar package type. The runner JAR has the same name as the legacy-jar one
+ * but bundles all dependencies, so there are no dependency directories.
+ */
+public class UberJarResolver extends LegacyJarResolver {
+
+  @Override
+  public List<Path> getPathsToDependencies(MavenProject project) {
+    return Collections.emptyList();
+  }
+}
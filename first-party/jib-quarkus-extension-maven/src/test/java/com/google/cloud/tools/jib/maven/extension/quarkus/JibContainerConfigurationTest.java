@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Google LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.cloud.tools.jib.maven.extension.quarkus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/** Tests for {@link JibContainerConfiguration}. */
+@RunWith(MockitoJUnitRunner.class)
+public class JibContainerConfigurationTest {
+
+  @Mock private MavenSession mavenSession;
+  @Mock private MavenProject mavenProject;
+
+  private final Properties userProperties = new Properties();
+
+  @Before
+  public void setUp() {
+    when(mavenSession.getSystemProperties()).thenReturn(new Properties());
+    when(mavenSession.getUserProperties()).thenReturn(userProperties);
+    when(mavenProject.getProperties()).thenReturn(new Properties());
+  }
+
+  @Test
+  public void testParseListProperty() {
+    // the cases of Jib's ConfigurationPropertyValidatorTest
+    assertEquals(Arrays.asList("abc"), JibContainerConfiguration.parseListProperty("abc"));
+    assertEquals(
+        Arrays.asList("abcd", "efg\\,hi\\\\", "", "\\jkl\\,", "\\\\\\,mnop", ""),
+        JibContainerConfiguration.parseListProperty("abcd,efg\\,hi\\\\,,\\jkl\\,,\\\\\\,mnop,"));
+    assertEquals(Arrays.asList(""), JibContainerConfiguration.parseListProperty(""));
+  }
+
+  @Test
+  public void testParseListProperty_trailingBackslash() {
+    assertEquals(Arrays.asList("a", "b\\"), JibContainerConfiguration.parseListProperty("a,b\\"));
+  }
+
+  @Test
+  public void testResolve() {
+    userProperties.setProperty("jib.container.jvmFlags", "-Xmx1g,-Dlist=a\\,b");
+    userProperties.setProperty("jib.container.appRoot", "/app-root");
+
+    JibContainerConfiguration configuration =
+        JibContainerConfiguration.resolve(mavenProject, mavenSession);
+
+    assertEquals(Arrays.asList("-Xmx1g", "-Dlist=a\\,b"), configuration.getJvmFlags());
+    assertEquals("/app-root", configuration.getAppRoot().get());
+    assertEquals(Collections.emptyList(), configuration.getEntrypoint());
+    assertFalse(configuration.getMainClass().isPresent());
+  }
+
+  @Test
+  public void testGetContainerConfiguration_cachedPerSession() {
+    MavenSession otherSession = mock(MavenSession.class);
+    when(otherSession.getSystemProperties()).thenReturn(new Properties());
+    when(otherSession.getUserProperties()).thenReturn(new Properties());
+    JibQuarkusExtension extension = new JibQuarkusExtension();
+
+    JibContainerConfiguration configuration =
+        extension.getContainerConfiguration(mavenProject, mavenSession);
+    JibContainerConfiguration configurationAgain =
+        extension.getContainerConfiguration(mavenProject, mavenSession);
+    JibContainerConfiguration otherSessionConfiguration =
+        extension.getContainerConfiguration(mavenProject, otherSession);
+    JibContainerConfiguration otherExtensionConfiguration =
+        new JibQuarkusExtension().getContainerConfiguration(mavenProject, mavenSession);
+
+    assertSame(configuration, configurationAgain);
+    assertNotSame(configuration, otherSessionConfiguration);
+    assertNotSame(configuration, otherExtensionConfiguration);
+    verify(mavenProject, times(3)).getPlugin("com.google.cloud.tools:jib-maven-plugin");
+  }
+}